@@ -0,0 +1,193 @@
+package lock14.random;
+
+import lock14.random.sampling.Ziggurat;
+
+import java.util.Random;
+
+/**
+ * Blackman and Vigna's xoshiro256** generator, usable anywhere a
+ * {@link Random} is expected.
+ * <p>
+ * The generator has 256 bits of state, a period of 2^256 - 1 and passes
+ * BigCrush. Unlike {@link Random} it is not synchronized: every call is a
+ * handful of shifts, rotations and xors with no compare-and-swap, so an
+ * instance must not be shared between threads. Give each thread its own
+ * stream with {@link #split()}, which hands out blocks of 2^128 outputs that
+ * provably do not overlap.
+ * <p>
+ * {@link #nextDouble()} uses the top 53 bits of a single 64-bit output, and
+ * {@link #nextGaussian()} uses the ziggurat method.
+ * <p>
+ * Source: D. Blackman and S. Vigna, "Scrambled Linear Pseudorandom Number
+ * Generators", ACM Transactions on Mathematical Software 47(4), 2021.
+ */
+public class Xoshiro256StarStar extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long[] JUMP = {0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL,
+                                        0xa9582618e03fc9aaL, 0x39abdc4529b1661cL};
+    private static final long[] LONG_JUMP = {0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L,
+                                             0x77710069854ee241L, 0x39109bb02acbe635L};
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // assigned by setSeed, which Random's constructor calls before any
+    // field initializer of this class would run
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    public Xoshiro256StarStar() {
+        super();
+    }
+
+    public Xoshiro256StarStar(long seed) {
+        super(seed);
+    }
+
+    private Xoshiro256StarStar(long s0, long s1, long s2, long s3) {
+        super(0L);
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    /**
+     * Expands the seed into the 256-bit state with SplitMix64, as the
+     * authors recommend, so similar seeds give unrelated streams.
+     */
+    @Override
+    public void setSeed(long seed) {
+        long x = seed;
+        s0 = mix64(x += GOLDEN_GAMMA);
+        s1 = mix64(x += GOLDEN_GAMMA);
+        s2 = mix64(x += GOLDEN_GAMMA);
+        s3 = mix64(x + GOLDEN_GAMMA);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Returns a uniform value in [0, bound) by Lemire's multiply and shift,
+     * which needs a division only on the rare rejection path.
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xffffffffL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xffffffffL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public double nextGaussian() {
+        return Ziggurat.nextGaussian(this);
+    }
+
+    /**
+     * Advances the state by 2^128 steps.
+     */
+    public void jump() {
+        jump(JUMP);
+    }
+
+    /**
+     * Advances the state by 2^192 steps.
+     */
+    public void longJump() {
+        jump(LONG_JUMP);
+    }
+
+    /**
+     * Returns a generator that starts where this one currently is, then
+     * jumps this one ahead by 2^128 steps. Streams obtained by repeated
+     * splitting never overlap as long as each uses fewer than 2^128 values.
+     */
+    public Xoshiro256StarStar split() {
+        Xoshiro256StarStar child = copy();
+        jump();
+        return child;
+    }
+
+    /**
+     * Returns a generator with the same state, which will produce the same
+     * sequence as this one.
+     */
+    public Xoshiro256StarStar copy() {
+        return new Xoshiro256StarStar(s0, s1, s2, s3);
+    }
+
+    // multiplies the state by the jump polynomial, see the reference code
+    private void jump(long[] polynomial) {
+        long t0 = 0;
+        long t1 = 0;
+        long t2 = 0;
+        long t3 = 0;
+        for (long word : polynomial) {
+            for (int b = 0; b < 64; b++) {
+                if ((word & (1L << b)) != 0) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
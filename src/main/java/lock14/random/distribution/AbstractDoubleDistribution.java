@@ -0,0 +1,59 @@
+package lock14.random.distribution;
+
+import java.util.Random;
+
+public abstract class AbstractDoubleDistribution extends AbstractDistribution<Double>
+                                                 implements DoubleDistribution {
+
+    public AbstractDoubleDistribution(Random randomGenerator) {
+        super(randomGenerator);
+    }
+
+    @Override
+    public Double pdf(Double x) {
+        return pdf(x.doubleValue());
+    }
+
+    @Override
+    public Double cdf(Double x) {
+        return cdf(x.doubleValue());
+    }
+
+    @Override
+    public Double logPdf(Double x) {
+        return logPdf(x.doubleValue());
+    }
+
+    @Override
+    public Double logCdf(Double x) {
+        return logCdf(x.doubleValue());
+    }
+
+    @Override
+    public Double survival(Double x) {
+        return survival(x.doubleValue());
+    }
+
+    @Override
+    public Double logSurvival(Double x) {
+        return logSurvival(x.doubleValue());
+    }
+
+    @Override
+    public Double inverseCdf(Double p) {
+        if (p == null) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        return inverseCdf(p.doubleValue());
+    }
+
+    @Override
+    public Double sample() {
+        return sampleDouble();
+    }
+
+    @Override
+    public double sampleDouble() {
+        return inverseCdf(randomGenerator.nextDouble());
+    }
+}
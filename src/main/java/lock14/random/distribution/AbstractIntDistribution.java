@@ -0,0 +1,59 @@
+package lock14.random.distribution;
+
+import java.util.Random;
+
+public abstract class AbstractIntDistribution extends AbstractDistribution<Integer>
+                                              implements IntDistribution {
+
+    public AbstractIntDistribution(Random randomGenerator) {
+        super(randomGenerator);
+    }
+
+    @Override
+    public Double pdf(Integer x) {
+        return pdf(x.intValue());
+    }
+
+    @Override
+    public Double cdf(Integer x) {
+        return cdf(x.intValue());
+    }
+
+    @Override
+    public Double logPdf(Integer x) {
+        return logPdf(x.intValue());
+    }
+
+    @Override
+    public Double logCdf(Integer x) {
+        return logCdf(x.intValue());
+    }
+
+    @Override
+    public Double survival(Integer x) {
+        return survival(x.intValue());
+    }
+
+    @Override
+    public Double logSurvival(Integer x) {
+        return logSurvival(x.intValue());
+    }
+
+    @Override
+    public Integer inverseCdf(Double p) {
+        if (p == null) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        return inverseCdf(p.doubleValue());
+    }
+
+    @Override
+    public Integer sample() {
+        return sampleInt();
+    }
+
+    @Override
+    public int sampleInt() {
+        return inverseCdf(randomGenerator.nextDouble());
+    }
+}
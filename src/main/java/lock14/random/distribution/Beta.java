@@ -4,20 +4,63 @@ import lock14.random.numerical.Functions;
 
 import java.util.Random;
 
-public class Beta extends AbstractDistribution<Double> implements Distribution<Double> {
+public class Beta extends AbstractDoubleDistribution {
+    private static final double LN_4 = Math.log(4.0);
+    private static final double LN_5_PLUS_1 = 1.0 + Math.log(5.0);
     private final double alpha;
     private final double beta;
     private final double logBetaAlphaBeta;
 
+    // variate generation, see sampleDouble()
+    private final Generator generator;
+    private final double minShape;
+    private final double maxShape;
+    private final double chengBeta;
+    private final double chengGamma;
+    private final double chengK1;
+    private final double chengK2;
+
+    private enum Generator {
+        JOHNK, CHENG_BB, CHENG_BC
+    }
+
     public Beta(double alpha, double beta) {
         this(alpha, beta, new Random());
     }
 
     public Beta(double alpha, double beta, Random random) {
         super(random);
+        if (alpha <= 0.0 || beta <= 0.0) {
+            throw new IllegalArgumentException("Shape parameters must be greater than zero");
+        }
         this.alpha = alpha;
         this.beta = beta;
         this.logBetaAlphaBeta = Functions.logBeta(alpha, beta);
+
+        minShape = Math.min(alpha, beta);
+        maxShape = Math.max(alpha, beta);
+        if (alpha + beta <= 1.0) {
+            generator = Generator.JOHNK;
+            chengBeta = chengGamma = chengK1 = chengK2 = 0.0;
+        } else if (minShape <= 1.0) {
+            generator = Generator.CHENG_BC;
+            double delta = 1.0 + maxShape - minShape;
+            chengBeta = 1.0 / minShape;
+            chengGamma = 0.0;
+            chengK1 = delta * (0.0138889 + 0.0416667 * minShape) / (maxShape * chengBeta - 0.777778);
+            chengK2 = 0.25 + (0.5 + 0.25 / delta) * minShape;
+        } else {
+            generator = Generator.CHENG_BB;
+            double sum = alpha + beta;
+            chengBeta = Math.sqrt((sum - 2.0) / (2.0 * alpha * beta - sum));
+            chengGamma = minShape + 1.0 / chengBeta;
+            chengK1 = chengK2 = 0.0;
+        }
+    }
+
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Beta.class, alpha, beta);
     }
 
     @Override
@@ -32,20 +75,167 @@ public class Beta extends AbstractDistribution<Double> implements Distribution<D
     }
 
     @Override
-    public Double pdf(Double x) {
-        double term1 = (alpha - 1) * Math.log(x);
-        double term2 = (beta - 1) * Math.log(1 - x);
-        return Math.exp(term1 + term2 - logBetaAlphaBeta);
+    public double pdf(double x) {
+        return Math.exp(logPdf(x));
+    }
+
+    @Override
+    public double logPdf(double x) {
+        if (x < 0.0 || x > 1.0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        // a shape of one contributes nothing, even at the ends where the
+        // log is infinite
+        double term1 = (alpha == 1.0) ? 0.0 : (alpha - 1) * Math.log(x);
+        double term2 = (beta == 1.0) ? 0.0 : (beta - 1) * Math.log1p(-x);
+        return term1 + term2 - logBetaAlphaBeta;
+    }
+
+    @Override
+    public void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double alphaMinusOne = alpha - 1;
+        double betaMinusOne = beta - 1;
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v > 0.0 && v < 1.0)
+                              ? Math.exp(alphaMinusOne * Math.log(v) + betaMinusOne * Math.log1p(-v) - logBetaAlphaBeta)
+                              : pdf(v);
+        }
+    }
+
+    @Override
+    public void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double alphaMinusOne = alpha - 1;
+        double betaMinusOne = beta - 1;
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v > 0.0 && v < 1.0)
+                              ? alphaMinusOne * Math.log(v) + betaMinusOne * Math.log1p(-v) - logBetaAlphaBeta
+                              : logPdf(v);
+        }
+    }
+
+    @Override
+    public double cdf(double x) {
+        return Functions.regularizedIncompleteBeta(x, alpha, beta, logBetaAlphaBeta);
+    }
+
+    @Override
+    public double logCdf(double x) {
+        double cdf = cdf(x);
+        return (cdf < 0.5) ? Math.log(cdf) : Math.log1p(-survival(x));
     }
 
+    /**
+     * I_(1-x)(beta, alpha), with x passed as the exact complement.
+     */
     @Override
-    public Double cdf(Double x) {
-        return Functions.incompleteBeta3(x, alpha, beta);
+    public double survival(double x) {
+        return Functions.regularizedIncompleteBeta(1.0 - x, x, beta, alpha, logBetaAlphaBeta);
     }
 
     @Override
-    public Double inverseCdf(Double p) {
-        return Functions.inverseBeta(p, alpha, beta);
+    public double logSurvival(double x) {
+        double survival = survival(x);
+        return (survival < 0.5) ? Math.log(survival) : Math.log1p(-cdf(x));
+    }
+
+    @Override
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        return Functions.inverseRegularizedIncompleteBeta(p, alpha, beta, logBetaAlphaBeta);
+    }
+
+    /**
+     * Draws a variate directly instead of inverting the cdf: Johnk's method
+     * when alpha + beta <= 1, otherwise Cheng's algorithm BC when the smaller
+     * shape is at most 1 and algorithm BB when both exceed 1.
+     * <p>
+     * Source: R. C. H. Cheng, "Generating Beta Variates with Nonintegral Shape
+     * Parameters", Communications of the ACM 21(4), 1978.
+     */
+    @Override
+    public double sampleDouble() {
+        switch (generator) {
+            case JOHNK:
+                return johnk();
+            case CHENG_BC:
+                return chengBC();
+            default:
+                return chengBB();
+        }
+    }
+
+    // X = U^(1/alpha), Y = V^(1/beta) conditioned on X + Y <= 1, worked in
+    // logs so that very small shapes do not underflow to 0 / 0
+    private double johnk() {
+        while (true) {
+            double logX = Math.log(1.0 - randomGenerator.nextDouble()) / alpha;
+            double logY = Math.log(1.0 - randomGenerator.nextDouble()) / beta;
+            double logMax = Math.max(logX, logY);
+            double logSum = logMax + Math.log(Math.exp(logX - logMax) + Math.exp(logY - logMax));
+            if (logSum <= 0.0) {
+                return Math.exp(logX - logSum);
+            }
+        }
+    }
+
+    private double chengBB() {
+        double sum = alpha + beta;
+        double v;
+        double w;
+        while (true) {
+            double u1 = randomGenerator.nextDouble();
+            double u2 = randomGenerator.nextDouble();
+            v = chengBeta * Math.log(u1 / (1.0 - u1));
+            w = Math.min(minShape * Math.exp(v), Double.MAX_VALUE);
+            double z = u1 * u1 * u2;
+            double r = chengGamma * v - LN_4;
+            double s = minShape + r - w;
+            // cheap squeeze before the logarithms
+            if (s + LN_5_PLUS_1 >= 5.0 * z) {
+                break;
+            }
+            double t = Math.log(z);
+            if (s > t || r + sum * Math.log(sum / (maxShape + w)) >= t) {
+                break;
+            }
+        }
+        return (alpha == minShape) ? w / (maxShape + w) : maxShape / (maxShape + w);
+    }
+
+    private double chengBC() {
+        double sum = alpha + beta;
+        double w;
+        while (true) {
+            double u1 = randomGenerator.nextDouble();
+            double u2 = randomGenerator.nextDouble();
+            double z;
+            if (u1 < 0.5) {
+                double y = u1 * u2;
+                z = u1 * y;
+                if (0.25 * u2 + z - y >= chengK1) {
+                    continue;
+                }
+            } else {
+                z = u1 * u1 * u2;
+                if (z <= 0.25) {
+                    w = Math.min(maxShape * Math.exp(chengBeta * Math.log(u1 / (1.0 - u1))), Double.MAX_VALUE);
+                    break;
+                }
+                if (z >= chengK2) {
+                    continue;
+                }
+            }
+            double v = chengBeta * Math.log(u1 / (1.0 - u1));
+            w = Math.min(maxShape * Math.exp(v), Double.MAX_VALUE);
+            if (sum * (Math.log(sum / (minShape + w)) + v) - LN_4 >= Math.log(z)) {
+                break;
+            }
+        }
+        return (alpha == minShape) ? minShape / (minShape + w) : w / (minShape + w);
     }
     
     public static void main(String[] args) {
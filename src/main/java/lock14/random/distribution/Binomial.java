@@ -0,0 +1,310 @@
+package lock14.random.distribution;
+
+import lock14.random.numerical.Functions;
+import lock14.random.stats.DescriptiveStatistics;
+import lock14.random.stats.Histogram;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The binomial distribution: the number of successes in n independent trials
+ * that each succeed with probability p.
+ * <p>
+ * Variates are drawn for r = min(p, 1 - p) and reflected when p > 1/2. When
+ * n r is below 30 they come from sequential inversion, otherwise from the
+ * BTPE (binomial, triangle, parallelogram, exponential) algorithm, whose cost
+ * does not grow with n.
+ * <p>
+ * Source: V. Kachitvichyanukul and B. W. Schmeiser, "Binomial Random Variate
+ * Generation", Communications of the ACM 31(2), 1988.
+ */
+public class Binomial extends AbstractIntDistribution {
+    private static final double BTPE_THRESHOLD = 30.0;
+    private final int n;
+    private final double p;
+    private final double r;
+    private final double q;
+    private final double logP;
+    private final double logQ;
+    private final double logGammaN;
+    // inversion constants
+    private final double qPowN;
+    private final double inversionBound;
+    // BTPE constants
+    private final int m;
+    private final double nrq;
+    private final double p1;
+    private final double p2;
+    private final double p3;
+    private final double p4;
+    private final double xm;
+    private final double xl;
+    private final double xr;
+    private final double c;
+    private final double lambdaL;
+    private final double lambdaR;
+
+    public Binomial(int n, double p) {
+        this(n, p, new Random());
+    }
+
+    public Binomial(int n, double p, Random random) {
+        super(random);
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of trials cannot be negative: " + n);
+        }
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        this.n = n;
+        this.p = p;
+        this.r = Math.min(p, 1.0 - p);
+        this.q = 1.0 - r;
+        this.logP = Math.log(p);
+        this.logQ = Math.log1p(-p);
+        this.logGammaN = Functions.logGamma(n + 1.0);
+
+        double nr = n * r;
+        this.qPowN = Math.exp(n * Math.log(q));
+        this.inversionBound = Math.min(n, nr + 10.0 * Math.sqrt(nr * q + 1.0));
+
+        double fm = nr + r;
+        this.m = (int) Math.floor(fm);
+        this.nrq = nr * q;
+        this.p1 = Math.floor(2.195 * Math.sqrt(nrq) - 4.6 * q) + 0.5;
+        this.xm = m + 0.5;
+        this.xl = xm - p1;
+        this.xr = xm + p1;
+        this.c = 0.134 + 20.5 / (15.3 + m);
+        double al = (fm - xl) / (fm - xl * r);
+        this.lambdaL = al * (1.0 + al / 2.0);
+        double ar = (xr - fm) / (xr * q);
+        this.lambdaR = ar * (1.0 + ar / 2.0);
+        this.p2 = p1 * (1.0 + 2.0 * c);
+        this.p3 = p2 + c / lambdaL;
+        this.p4 = p3 + c / lambdaR;
+    }
+
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Binomial.class, n, p);
+    }
+
+    @Override
+    public Double mean() {
+        return n * p;
+    }
+
+    @Override
+    public Double variance() {
+        return n * p * (1 - p);
+    }
+
+    @Override
+    public double pdf(int x) {
+        return Math.exp(logPdf(x));
+    }
+
+    @Override
+    public double logPdf(int x) {
+        if (x < 0 || x > n) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (p == 0.0 || p == 1.0) {
+            return (x == ((p == 0.0) ? 0 : n)) ? 0.0 : Double.NEGATIVE_INFINITY;
+        }
+        return logGammaN - Functions.logGamma(x + 1.0) - Functions.logGamma(n - x + 1.0)
+               + x * logP + (n - x) * logQ;
+    }
+
+    @Override
+    public double cdf(int x) {
+        if (x < 0) {
+            return 0.0;
+        }
+        if (x >= n) {
+            return 1.0;
+        }
+        // P(X <= x) = I_{1-p}(n - x, x + 1)
+        return Functions.regularizedIncompleteBeta(1.0 - p, n - x, x + 1.0);
+    }
+
+    @Override
+    public double logCdf(int x) {
+        double cdf = cdf(x);
+        return (cdf < 0.5) ? Math.log(cdf) : Math.log1p(-survival(x));
+    }
+
+    @Override
+    public double survival(int x) {
+        if (x < 0) {
+            return 1.0;
+        }
+        if (x >= n) {
+            return 0.0;
+        }
+        // P(X > x) = I_p(x + 1, n - x)
+        return Functions.regularizedIncompleteBeta(p, x + 1.0, n - x);
+    }
+
+    @Override
+    public double logSurvival(int x) {
+        double survival = survival(x);
+        return (survival < 0.5) ? Math.log(survival) : Math.log1p(-cdf(x));
+    }
+
+    @Override
+    public int inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        if (p == 0.0) {
+            return 0;
+        }
+        if (p == 1.0) {
+            return n;
+        }
+        // Cornish-Fisher start, then walk to the smallest k with cdf(k) >= p
+        double z = Functions.inverseNormalCdf(p);
+        double mean = n * this.p;
+        double sd = Math.sqrt(mean * (1.0 - this.p));
+        double guess = mean + sd * z + (1.0 - 2.0 * this.p) * (z * z - 1.0) / 6.0;
+        int k = (int) Math.max(0.0, Math.min(Math.floor(guess), n));
+        if (cdf(k) >= p) {
+            while (k > 0 && cdf(k - 1) >= p) {
+                k--;
+            }
+        } else {
+            do {
+                k++;
+            } while (cdf(k) < p);
+        }
+        return k;
+    }
+
+    @Override
+    public int sampleInt() {
+        int y = (n * r < BTPE_THRESHOLD) ? inversion() : btpe();
+        return (p > 0.5) ? n - y : y;
+    }
+
+    private int inversion() {
+        double s = r / q;
+        double u = randomGenerator.nextDouble();
+        double probability = qPowN;
+        int x = 0;
+        while (u > probability) {
+            x++;
+            if (x > inversionBound) {
+                // lost to rounding far out in the tail, start over
+                x = 0;
+                probability = qPowN;
+                u = randomGenerator.nextDouble();
+            } else {
+                u -= probability;
+                probability *= s * (n - x + 1) / x;
+            }
+        }
+        return x;
+    }
+
+    private int btpe() {
+        while (true) {
+            double u = randomGenerator.nextDouble() * p4;
+            double v = randomGenerator.nextDouble();
+            int y;
+            if (u <= p1) {
+                // triangular region, accepted immediately
+                return (int) Math.floor(xm - p1 * v + u);
+            } else if (u <= p2) {
+                // parallelogram
+                double x = xl + (u - p1) / c;
+                v = v * c + 1.0 - Math.abs(m - x + 0.5) / p1;
+                if (v > 1.0) {
+                    continue;
+                }
+                y = (int) Math.floor(x);
+            } else if (u <= p3) {
+                // left exponential tail
+                double x = Math.floor(xl + Math.log(v) / lambdaL);
+                if (x < 0.0) {
+                    continue;
+                }
+                y = (int) x;
+                v *= (u - p2) * lambdaL;
+            } else {
+                // right exponential tail
+                double x = Math.floor(xr - Math.log(v) / lambdaR);
+                if (x > n) {
+                    continue;
+                }
+                y = (int) x;
+                v *= (u - p3) * lambdaR;
+            }
+            if (accept(y, v)) {
+                return y;
+            }
+        }
+    }
+
+    // compares v with f(y) / f(m), exactly near the mode and with squeezes
+    // around Stirling's approximation further out
+    private boolean accept(int y, double v) {
+        int k = Math.abs(y - m);
+        if (k <= 20 || k >= nrq / 2.0 - 1.0) {
+            double s = r / q;
+            double a = s * (n + 1);
+            double f = 1.0;
+            if (m < y) {
+                for (int i = m + 1; i <= y; i++) {
+                    f *= a / i - s;
+                }
+            } else if (m > y) {
+                for (int i = y + 1; i <= m; i++) {
+                    f /= a / i - s;
+                }
+            }
+            return v <= f;
+        }
+        double rho = (k / nrq) * ((k * (k / 3.0 + 0.625) + 1.0 / 6.0) / nrq + 0.5);
+        double t = -(double) k * k / (2.0 * nrq);
+        double logV = Math.log(v);
+        if (logV < t - rho) {
+            return true;
+        }
+        if (logV > t + rho) {
+            return false;
+        }
+        double x1 = y + 1.0;
+        double f1 = m + 1.0;
+        double z = n + 1.0 - m;
+        double w = n - y + 1.0;
+        return logV <= xm * Math.log(f1 / x1)
+                       + (n - m + 0.5) * Math.log(z / w)
+                       + (y - m) * Math.log(w * r / (x1 * q))
+                       + stirlingCorrection(f1) + stirlingCorrection(z)
+                       + stirlingCorrection(x1) + stirlingCorrection(w);
+    }
+
+    private static double stirlingCorrection(double x) {
+        double x2 = x * x;
+        return (13680.0 - (462.0 - (132.0 - (99.0 - 140.0 / x2) / x2) / x2) / x2) / x / 166320.0;
+    }
+
+    public static void main(String[] args) {
+        Distribution<Integer> distribution = new Binomial(1000, 0.3);
+        List<Integer> samples = distribution.sample(1000000);
+        DescriptiveStatistics stats = new DescriptiveStatistics(samples);
+        System.out.println("True mean: " + distribution.mean());
+        System.out.println("True variance: " + distribution.variance());
+        System.out.println("Sample mean: " + stats.mean());
+        System.out.println("Sample variance: " + stats.variance());
+        for (int i = 0; i < 30; i++) {
+            System.out.print("_");
+        }
+        System.out.println();
+        Histogram<Integer> histogram = new Histogram<>(stats, 20);
+        histogram.print();
+    }
+}
@@ -0,0 +1,103 @@
+package lock14.random.distribution;
+
+import java.util.Random;
+
+/**
+ * Block kernels behind the bulk {@code fill} methods of the distributions
+ * with closed form inverse cdfs.
+ * <p>
+ * A block is filled in two passes over the destination array: one drawing
+ * the uniforms, one transforming them in place. The transforms are
+ * straight-line code with no calls or data dependent branches, so the JIT
+ * can keep everything in registers and unroll them. The log and tan
+ * kernels are the fdlibm and Cephes reductions and polynomials, accurate
+ * to about an ulp on the arguments used here, and cheaper than the
+ * general purpose Math versions.
+ */
+final class BulkKernels {
+    // fdlibm e_log.c
+    private static final double LG1 = 6.666666666666735130e-01;
+    private static final double LG2 = 3.999999999940941908e-01;
+    private static final double LG3 = 2.857142874366239149e-01;
+    private static final double LG4 = 2.222219843214978396e-01;
+    private static final double LG5 = 1.818357216161805012e-01;
+    private static final double LG6 = 1.531383769920937332e-01;
+    private static final double LG7 = 1.479819860511658591e-01;
+    private static final double LN2_HI = 6.93147180369123816490e-01;
+    private static final double LN2_LO = 1.90821492927058770002e-10;
+    private static final long SQRT_HALF_BITS = 0x3fe6a09e667f3bcdL;
+    // Cephes tan.c, tan(x) = x + x^3 P(x^2) / Q(x^2) on [0, pi / 4]
+    private static final double TAN_P0 = -1.30936939181383777646E4;
+    private static final double TAN_P1 = 1.15351664838587416140E6;
+    private static final double TAN_P2 = -1.79565251976484877988E7;
+    private static final double TAN_Q1 = 1.36812963470692954678E4;
+    private static final double TAN_Q2 = -1.32089234440210967447E6;
+    private static final double TAN_Q3 = 2.50083801823357915839E7;
+    private static final double TAN_Q4 = -5.38695755929454629881E7;
+
+    static final int BLOCK_SIZE = 256;
+
+    private BulkKernels() {
+    }
+
+    /**
+     * Fills dst[off, off + len) with 1 - U for U uniform on [0, 1), that is
+     * with uniforms on (0, 1], which have a finite logarithm.
+     */
+    static void openUniforms(Random random, double[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            dst[i] = 1.0 - random.nextDouble();
+        }
+    }
+
+    /**
+     * The natural logarithm of a positive, finite, normal argument.
+     */
+    static double log(double x) {
+        // split x = 2^k m with m in [sqrt(1/2), sqrt(2)) using integer
+        // arithmetic on the bits, so there is no branch on the mantissa
+        long bits = Double.doubleToRawLongBits(x) + (0x3ff0000000000000L - SQRT_HALF_BITS);
+        int k = (int) (bits >> 52) - 1023;
+        double f = Double.longBitsToDouble((bits & 0x000fffffffffffffL) + SQRT_HALF_BITS) - 1.0;
+        double s = f / (2.0 + f);
+        double z = s * s;
+        double w = z * z;
+        double r = z * (LG1 + w * (LG3 + w * (LG5 + w * LG7))) + w * (LG2 + w * (LG4 + w * LG6));
+        double halfSquare = 0.5 * f * f;
+        return k * LN2_HI - ((halfSquare - (s * (halfSquare + r) + k * LN2_LO)) - f);
+    }
+
+    /**
+     * tan(pi v) for v in [-1/2, 1/2]. Near the poles the reflection
+     * 1 / tan(pi (1/2 - |v|)) is exact in its argument, so the result keeps
+     * its relative accuracy where tan(pi * v) would not.
+     */
+    static double tanPi(double v) {
+        double w = Math.abs(v);
+        boolean reflect = w > 0.25;
+        double x = Math.PI * (reflect ? 0.5 - w : w);
+        double z = x * x;
+        double t = x + x * z * ((TAN_P0 * z + TAN_P1) * z + TAN_P2)
+                             / ((((z + TAN_Q1) * z + TAN_Q2) * z + TAN_Q3) * z + TAN_Q4);
+        t = reflect ? 1.0 / t : t;
+        return (v < 0.0) ? -t : t;
+    }
+
+    /**
+     * Replaces each U in (0, 1] by -mean log(U).
+     */
+    static void exponential(double[] x, int off, int len, double mean) {
+        for (int i = off; i < off + len; i++) {
+            x[i] = -mean * log(x[i]);
+        }
+    }
+
+    /**
+     * Replaces each U in [0, 1) by location + scale tan(pi (U - 1/2)).
+     */
+    static void cauchy(double[] x, int off, int len, double location, double scale) {
+        for (int i = off; i < off + len; i++) {
+            x[i] = scale * tanPi(x[i] - 0.5) + location;
+        }
+    }
+}
@@ -6,11 +6,12 @@ import lock14.random.stats.Histogram;
 import java.util.List;
 import java.util.Random;
 
-public class Cauchy extends AbstractDistribution<Double> {
+public class Cauchy extends AbstractDoubleDistribution {
     private final double x0;
     private final double gamma;
     private final double gammaSquared;
     private final double pdfConst;
+    private final double logPdfConst;
 
     Cauchy(double x0, double gamma) {
         this(x0, gamma, new Random());
@@ -22,8 +23,14 @@ public class Cauchy extends AbstractDistribution<Double> {
         this.gamma = gamma;
         this.gammaSquared = gamma * gamma;
         this.pdfConst = (gammaSquared) / (Math.PI * gamma);
+        this.logPdfConst = -Math.log(Math.PI * gamma);
     }
     
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Cauchy.class, x0, gamma);
+    }
+
     @Override
     public Double mean() {
         throw new UnsupportedOperationException("Cauchy Distribution mean is undefined");
@@ -35,22 +42,97 @@ public class Cauchy extends AbstractDistribution<Double> {
     }
 
     @Override
-    public Double pdf(Double x) {
+    public double pdf(double x) {
         double xdiff = x - x0;
         return pdfConst / ((xdiff * xdiff) + gammaSquared);
     }
 
     @Override
-    public Double cdf(Double x) {
-        return (Math.atan((x - x0) / gamma) / Math.PI) + 0.5;
+    public double logPdf(double x) {
+        double z = Math.abs((x - x0) / gamma);
+        // log(1 + z^2), without overflow
+        return logPdfConst - ((z < 1e150) ? Math.log1p(z * z) : 2.0 * Math.log(z));
+    }
+
+    /**
+     * Computed as atan2(1, -z) / pi, which equals 1/2 + atan(z) / pi but
+     * keeps its relative precision in the lower tail.
+     */
+    @Override
+    public double cdf(double x) {
+        return Math.atan2(1.0, (x0 - x) / gamma) / Math.PI;
+    }
+
+    @Override
+    public double logCdf(double x) {
+        return (x < x0) ? Math.log(cdf(x)) : Math.log1p(-survival(x));
     }
 
     @Override
-    public Double inverseCdf(Double p) {
-        if (p == null || p < 0.0 || p > 1.0) {
+    public double survival(double x) {
+        return Math.atan2(1.0, (x - x0) / gamma) / Math.PI;
+    }
+
+    @Override
+    public double logSurvival(double x) {
+        return (x > x0) ? Math.log(survival(x)) : Math.log1p(-cdf(x));
+    }
+
+    @Override
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
             throw new IllegalArgumentException("Invalid probability: p = " + p);
         }
-        return (Math.tan(Math.PI * (p + 0.5)) * gamma) + x0;
+        return (BulkKernels.tanPi(p - 0.5) * gamma) + x0;
+    }
+
+    @Override
+    public void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            double xdiff = x[xOff + i] - x0;
+            out[outOff + i] = pdfConst / ((xdiff * xdiff) + gammaSquared);
+        }
+    }
+
+    @Override
+    public void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double inverseGamma = 1.0 / gamma;
+        for (int i = 0; i < len; i++) {
+            double z = Math.abs((x[xOff + i] - x0) * inverseGamma);
+            // log(1 + z^2) is only needed to absolute precision here, which
+            // the fast log gives without log1p
+            out[outOff + i] = logPdfConst - ((z < 1e150) ? BulkKernels.log(1.0 + z * z) : 2.0 * Math.log(z));
+        }
+    }
+
+    @Override
+    public void cdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double inverseGamma = 1.0 / gamma;
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = Math.atan2(1.0, (x0 - x[xOff + i]) * inverseGamma) / Math.PI;
+        }
+    }
+
+    @Override
+    public void inverseCdf(double[] p, int pOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            double q = p[pOff + i];
+            if (q < 0.0 || q > 1.0) {
+                throw new IllegalArgumentException("Invalid probability: p = " + q);
+            }
+            out[outOff + i] = (BulkKernels.tanPi(q - 0.5) * gamma) + x0;
+        }
+    }
+
+    @Override
+    public void fill(double[] dst, int off, int len) {
+        for (int start = off; start < off + len; start += BulkKernels.BLOCK_SIZE) {
+            int n = Math.min(BulkKernels.BLOCK_SIZE, off + len - start);
+            for (int i = start; i < start + n; i++) {
+                dst[i] = randomGenerator.nextDouble();
+            }
+            BulkKernels.cauchy(dst, start, n, x0, gamma);
+        }
     }
     
     public static void main(String[] args) {
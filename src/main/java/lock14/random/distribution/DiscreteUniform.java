@@ -6,7 +6,7 @@ import lock14.random.stats.Histogram;
 import java.util.List;
 import java.util.Random;
 
-public class DiscreteUniform extends AbstractDistribution<Integer> {
+public class DiscreteUniform extends AbstractIntDistribution {
     private static final String errFormat = "Invalid interval, (a=%d, b=%d). Must have a < b";
     private final int b;
     private final int a;
@@ -24,6 +24,11 @@ public class DiscreteUniform extends AbstractDistribution<Integer> {
         this.a = a;
     }
     
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(DiscreteUniform.class, a, b);
+    }
+
     @Override
     public Double mean() {
         return 0.5 * (a + b);
@@ -36,27 +41,60 @@ public class DiscreteUniform extends AbstractDistribution<Integer> {
     }
     
     @Override
-    public Double pdf(Integer x) {
+    public double pdf(int x) {
         return (x < a) || (x > b) ? 0.0 : 1.0 / (b - a + 1.0);
     }
 
     @Override
-    public Double cdf(Integer x) {
+    public double logPdf(int x) {
+        return (x < a) || (x > b) ? Double.NEGATIVE_INFINITY : -Math.log(b - a + 1.0);
+    }
+
+    @Override
+    public double cdf(int x) {
         return (x < a) ? 0.0 : (x > b) ? 1.0 : (x - a + 1.0) / (b - a + 1.0);
     }
+
+    @Override
+    public double survival(int x) {
+        return (x < a) ? 1.0 : (x >= b) ? 0.0 : ((double) b - x) / (b - a + 1.0);
+    }
     
     @Override
-    public Integer inverseCdf(Double p) {
-        if (p == null || p < 0.0 || p > 1.0) {
+    public int inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
             throw new IllegalArgumentException("Invalid probability: p = " + p);
         }
         return (int) Math.ceil((p * (b - a + 1.0)) + (a - 1));
     }
 
     @Override
-    public Integer sample() {
+    public int sampleInt() {
         return randomGenerator.nextInt(b - a + 1) + a;
     }
+
+    /**
+     * Draws two variates from each 64-bit output with Lemire's multiply and
+     * shift, rejecting the few products that would bias the result.
+     */
+    @Override
+    public void fill(int[] dst, int off, int len) {
+        long range = (long) b - a + 1;
+        long threshold = (1L << 32) % range;
+        int i = off;
+        int end = off + len;
+        while (i < end) {
+            long bits = randomGenerator.nextLong();
+            long product = (bits >>> 32) * range;
+            if ((product & 0xffffffffL) >= threshold) {
+                dst[i++] = a + (int) (product >>> 32);
+            }
+            product = (bits & 0xffffffffL) * range;
+            if (i < end && (product & 0xffffffffL) >= threshold) {
+                dst[i++] = a + (int) (product >>> 32);
+            }
+        }
+    }
     
     public static void main(String[] args) {
         Distribution<Integer> distribution = new DiscreteUniform(1, 20);
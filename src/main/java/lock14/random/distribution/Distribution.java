@@ -8,4 +8,38 @@ public interface Distribution<N extends Number> extends DistributionSampler<N> {
     Double pdf(N x);
     Double cdf(N x);
     N inverseCdf(Double p);
+
+    /**
+     * The log of the density, or of the mass for discrete distributions.
+     * Implementations compute it directly, so likelihoods can be summed in
+     * log space without an exp and log per term, and without underflow.
+     */
+    default Double logPdf(N x) {
+        return Math.log(pdf(x));
+    }
+
+    default Double logCdf(N x) {
+        return Math.log(cdf(x));
+    }
+
+    /**
+     * The upper tail P(X > x), computed without the cancellation of 1 - cdf.
+     */
+    default Double survival(N x) {
+        return 1.0 - cdf(x);
+    }
+
+    default Double logSurvival(N x) {
+        return Math.log(survival(x));
+    }
+
+    /**
+     * A value that is equal for instances describing the same distribution,
+     * whatever their generators, for use as a cache key. The built-in
+     * distributions return a {@link ParameterKey}; by default it is the
+     * instance itself, which is only equal to itself.
+     */
+    default Object parameterKey() {
+        return this;
+    }
 }
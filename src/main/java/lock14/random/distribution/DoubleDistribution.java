@@ -0,0 +1,80 @@
+package lock14.random.distribution;
+
+import lock14.random.sampling.DoubleSampler;
+
+/**
+ * A continuous distribution whose density, cumulative distribution and
+ * inverse, and their logs and upper tails, can be evaluated on primitive
+ * doubles. The boxed methods of {@link Distribution} are expected to delegate
+ * to these.
+ */
+public interface DoubleDistribution extends Distribution<Double>, DoubleSampler {
+    double pdf(double x);
+    double cdf(double x);
+    double inverseCdf(double p);
+
+    default double logPdf(double x) {
+        return Math.log(pdf(x));
+    }
+
+    default double logCdf(double x) {
+        return Math.log(cdf(x));
+    }
+
+    /**
+     * P(X > x), which the distributions compute directly so that it keeps
+     * its relative precision in the upper tail.
+     */
+    default double survival(double x) {
+        return 1.0 - cdf(x);
+    }
+
+    default double logSurvival(double x) {
+        return Math.log(survival(x));
+    }
+
+    /**
+     * Evaluates the density at x[xOff], ..., x[xOff + len - 1] into out,
+     * starting at outOff. The two arrays may be the same. Distributions
+     * override the bulk methods with loops that hoist their constants.
+     */
+    default void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = pdf(x[xOff + i]);
+        }
+    }
+
+    default void pdf(double[] x, double[] out) {
+        pdf(x, 0, out, 0, x.length);
+    }
+
+    default void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = logPdf(x[xOff + i]);
+        }
+    }
+
+    default void logPdf(double[] x, double[] out) {
+        logPdf(x, 0, out, 0, x.length);
+    }
+
+    default void cdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = cdf(x[xOff + i]);
+        }
+    }
+
+    default void cdf(double[] x, double[] out) {
+        cdf(x, 0, out, 0, x.length);
+    }
+
+    default void inverseCdf(double[] p, int pOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = inverseCdf(p[pOff + i]);
+        }
+    }
+
+    default void inverseCdf(double[] p, double[] out) {
+        inverseCdf(p, 0, out, 0, p.length);
+    }
+}
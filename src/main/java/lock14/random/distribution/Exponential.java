@@ -1,23 +1,52 @@
 package lock14.random.distribution;
 
+import lock14.random.numerical.Functions;
+import lock14.random.sampling.Ziggurat;
 import lock14.random.stats.DescriptiveStatistics;
 import lock14.random.stats.Histogram;
 
 import java.util.List;
 import java.util.Random;
 
-public class Exponential extends AbstractDistribution<Double> {
+public class Exponential extends AbstractDoubleDistribution {
     private final double lambda;
+    private final double logLambda;
+    private final Method method;
+
+    /**
+     * The algorithm used to generate exponential variates.
+     */
+    public enum Method {
+        /** The closed form inverse cdf applied to a uniform variate. */
+        INVERSION,
+        /** Marsaglia and Tsang's ziggurat, see {@link Ziggurat}. */
+        ZIGGURAT
+    }
 
     public Exponential(double lambda) {
         this(lambda, new Random());
     }
 
+    public Exponential(double lambda, Method method) {
+        this(lambda, new Random(), method);
+    }
+
     public Exponential(double lambda, Random random) {
+        this(lambda, random, Method.INVERSION);
+    }
+
+    public Exponential(double lambda, Random random, Method method) {
         super(random);
         this.lambda = lambda;
+        this.logLambda = Math.log(lambda);
+        this.method = method;
     }
     
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Exponential.class, lambda);
+    }
+
     @Override
     public Double mean() {
         return 1 / lambda;
@@ -29,22 +58,102 @@ public class Exponential extends AbstractDistribution<Double> {
     }
 
     @Override
-    public Double pdf(Double x) {
+    public double pdf(double x) {
         return (x < 0) ? 0.0 : lambda * Math.exp(-(x * lambda));
     }
 
     @Override
-    public Double cdf(Double x) {
-        return (x < 0) ? 0.0 : 1 - Math.exp(-(x * lambda));
+    public double logPdf(double x) {
+        return (x < 0) ? Double.NEGATIVE_INFINITY : logLambda - x * lambda;
+    }
+
+    @Override
+    public double cdf(double x) {
+        return (x < 0) ? 0.0 : -Math.expm1(-(x * lambda));
     }
 
     @Override
-    public Double inverseCdf(Double p) {
-        if (p == null || p < 0.0 || p > 1.0) {
+    public double logCdf(double x) {
+        return (x < 0) ? Double.NEGATIVE_INFINITY : Functions.logOneMinusExp(-(x * lambda));
+    }
+
+    @Override
+    public double survival(double x) {
+        return (x < 0) ? 1.0 : Math.exp(-(x * lambda));
+    }
+
+    @Override
+    public double logSurvival(double x) {
+        return (x < 0) ? 0.0 : -(x * lambda);
+    }
+
+    @Override
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
             throw new IllegalArgumentException("Invalid probability: p = " + p);
         }
         return (-Math.log(1 - p) / lambda);
     }
+
+    @Override
+    public void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v < 0) ? 0.0 : lambda * Math.exp(-(v * lambda));
+        }
+    }
+
+    @Override
+    public void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v < 0) ? Double.NEGATIVE_INFINITY : logLambda - v * lambda;
+        }
+    }
+
+    @Override
+    public void cdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v < 0) ? 0.0 : -Math.expm1(-(v * lambda));
+        }
+    }
+
+    @Override
+    public void inverseCdf(double[] p, int pOff, double[] out, int outOff, int len) {
+        double mean = 1 / lambda;
+        for (int i = 0; i < len; i++) {
+            double q = p[pOff + i];
+            if (q < 0.0 || q > 1.0) {
+                throw new IllegalArgumentException("Invalid probability: p = " + q);
+            }
+            out[outOff + i] = -Math.log(1 - q) * mean;
+        }
+    }
+
+    @Override
+    public double sampleDouble() {
+        if (method == Method.ZIGGURAT) {
+            return Ziggurat.nextExponential(randomGenerator) / lambda;
+        }
+        return super.sampleDouble();
+    }
+
+    @Override
+    public void fill(double[] dst, int off, int len) {
+        double mean = 1 / lambda;
+        if (method == Method.ZIGGURAT) {
+            for (int i = off; i < off + len; i++) {
+                dst[i] = Ziggurat.nextExponential(randomGenerator) * mean;
+            }
+        } else {
+            for (int start = off; start < off + len; start += BulkKernels.BLOCK_SIZE) {
+                int n = Math.min(BulkKernels.BLOCK_SIZE, off + len - start);
+                BulkKernels.openUniforms(randomGenerator, dst, start, n);
+                BulkKernels.exponential(dst, start, n, mean);
+            }
+        }
+    }
     
     public static void main(String[] args) {
         Distribution<Double> distribution = new Exponential(0.5);
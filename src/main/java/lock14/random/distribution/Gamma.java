@@ -0,0 +1,187 @@
+package lock14.random.distribution;
+
+import lock14.random.numerical.Functions;
+import lock14.random.sampling.Ziggurat;
+import lock14.random.stats.DescriptiveStatistics;
+import lock14.random.stats.Histogram;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The gamma distribution with the given shape and rate, so that the mean is
+ * shape / rate. Gamma(1, lambda) is Exponential(lambda) and Gamma(k / 2, 1 / 2)
+ * is the chi-squared distribution with k degrees of freedom.
+ */
+public class Gamma extends AbstractDoubleDistribution {
+    private final double shape;
+    private final double rate;
+    private final double logGammaShape;
+    private final double logNormalizer;
+    // Marsaglia-Tsang constants, see nextStandardGamma
+    private final double d;
+    private final double c;
+
+    public Gamma(double shape, double rate) {
+        this(shape, rate, new Random());
+    }
+
+    public Gamma(double shape, double rate, Random random) {
+        super(random);
+        if (shape <= 0.0 || rate <= 0.0) {
+            throw new IllegalArgumentException("Shape and rate must be greater than zero");
+        }
+        this.shape = shape;
+        this.rate = rate;
+        this.logGammaShape = Functions.logGamma(shape);
+        this.logNormalizer = shape * Math.log(rate) - logGammaShape;
+        this.d = ((shape < 1.0) ? shape + 1.0 : shape) - 1.0 / 3.0;
+        this.c = 1.0 / Math.sqrt(9.0 * d);
+    }
+
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Gamma.class, shape, rate);
+    }
+
+    @Override
+    public Double mean() {
+        return shape / rate;
+    }
+
+    @Override
+    public Double variance() {
+        return shape / (rate * rate);
+    }
+
+    @Override
+    public double pdf(double x) {
+        if (x < 0.0) {
+            return 0.0;
+        }
+        if (x == 0.0) {
+            return (shape < 1.0) ? Double.POSITIVE_INFINITY : (shape == 1.0) ? rate : 0.0;
+        }
+        return Math.exp(logNormalizer + (shape - 1.0) * Math.log(x) - rate * x);
+    }
+
+    @Override
+    public double logPdf(double x) {
+        if (x < 0.0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (x == 0.0) {
+            return (shape < 1.0) ? Double.POSITIVE_INFINITY
+                                 : (shape == 1.0) ? Math.log(rate) : Double.NEGATIVE_INFINITY;
+        }
+        return logNormalizer + (shape - 1.0) * Math.log(x) - rate * x;
+    }
+
+    @Override
+    public double cdf(double x) {
+        return Functions.regularizedGammaP(rate * x, shape, logGammaShape);
+    }
+
+    @Override
+    public double logCdf(double x) {
+        double cdf = cdf(x);
+        return (cdf < 0.5) ? Math.log(cdf) : Math.log1p(-survival(x));
+    }
+
+    @Override
+    public double survival(double x) {
+        return Functions.regularizedGammaQ(rate * x, shape, logGammaShape);
+    }
+
+    @Override
+    public double logSurvival(double x) {
+        double survival = survival(x);
+        return (survival < 0.5) ? Math.log(survival) : Math.log1p(-cdf(x));
+    }
+
+    @Override
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        return Functions.inverseRegularizedGammaP(p, shape, logGammaShape) / rate;
+    }
+
+    @Override
+    public void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double shapeMinusOne = shape - 1.0;
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v > 0.0) ? Math.exp(logNormalizer + shapeMinusOne * Math.log(v) - rate * v)
+                                        : pdf(v);
+        }
+    }
+
+    @Override
+    public void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double shapeMinusOne = shape - 1.0;
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v > 0.0) ? logNormalizer + shapeMinusOne * Math.log(v) - rate * v
+                                        : logPdf(v);
+        }
+    }
+
+    @Override
+    public double sampleDouble() {
+        return marsagliaTsang(randomGenerator, shape, d, c) / rate;
+    }
+
+    /**
+     * Returns a Gamma(shape, 1) variate using the given generator. Divide by
+     * the rate for other scales.
+     */
+    public static double nextStandardGamma(Random random, double shape) {
+        double d = ((shape < 1.0) ? shape + 1.0 : shape) - 1.0 / 3.0;
+        return marsagliaTsang(random, shape, d, 1.0 / Math.sqrt(9.0 * d));
+    }
+
+    /*
+     * G. Marsaglia and W. W. Tsang, "A Simple Method for Generating Gamma
+     * Variables", ACM Transactions on Mathematical Software 26(3), 2000.
+     * Shapes below one are boosted: Gamma(a) = Gamma(a + 1) * U^(1 / a).
+     */
+    private static double marsagliaTsang(Random random, double shape, double d, double c) {
+        while (true) {
+            double x;
+            double v;
+            do {
+                x = Ziggurat.nextGaussian(random);
+                v = 1.0 + c * x;
+            } while (v <= 0.0);
+            v = v * v * v;
+            double u = random.nextDouble();
+            double xSquared = x * x;
+            // the squeeze accepts about 98% of candidates without a logarithm
+            if (u < 1.0 - 0.0331 * xSquared * xSquared
+                || Math.log(u) < 0.5 * xSquared + d * (1.0 - v + Math.log(v))) {
+                double variate = d * v;
+                if (shape < 1.0) {
+                    variate *= Math.exp(Math.log(1.0 - random.nextDouble()) / shape);
+                }
+                return variate;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        Distribution<Double> distribution = new Gamma(2.5, 0.5);
+        List<Double> samples = distribution.sample(1000000);
+        DescriptiveStatistics stats = new DescriptiveStatistics(samples);
+        System.out.println("True mean: " + distribution.mean());
+        System.out.println("True variance: " + distribution.variance());
+        System.out.println("Sample mean: " + stats.mean());
+        System.out.println("Sample variance: " + stats.variance());
+        for (int i = 0; i < 30; i++) {
+            System.out.print("_");
+        }
+        System.out.println();
+        Histogram<Double> histogram = new Histogram<>(stats, 20);
+        histogram.print();
+    }
+}
@@ -1,16 +1,29 @@
 package lock14.random.distribution;
 
-import lock14.random.numerical.Integration;
+import lock14.random.numerical.Functions;
+import lock14.random.sampling.Ziggurat;
 import lock14.random.stats.DescriptiveStatistics;
 import lock14.random.stats.Histogram;
 
 import java.util.List;
 import java.util.Random;
 
-public class Gaussian extends AbstractDistribution<Double> {
+public class Gaussian extends AbstractDoubleDistribution {
     private static final double HALF_LN_TWO_PI = 0.5 * Math.log(2 * Math.PI);
     private final double mu;
     private final double sigma;
+    private final double logSigma;
+    private final Method method;
+
+    /**
+     * The algorithm used to generate standard normal variates.
+     */
+    public enum Method {
+        /** The random generator's own {@code nextGaussian()}. */
+        POLAR,
+        /** Marsaglia and Tsang's ziggurat, see {@link Ziggurat}. */
+        ZIGGURAT
+    }
     
     public Gaussian() {
         this(0.0, 1.0);
@@ -20,12 +33,27 @@ public class Gaussian extends AbstractDistribution<Double> {
         this(mu, sigma, new Random());
     }
     
+    public Gaussian(double mu, double sigma, Method method) {
+        this(mu, sigma, new Random(), method);
+    }
+
     public Gaussian(double mu, double sigma, Random random) {
+        this(mu, sigma, random, Method.POLAR);
+    }
+
+    public Gaussian(double mu, double sigma, Random random, Method method) {
         super(random);
         this.mu = mu;
         this.sigma = sigma;
+        this.logSigma = Math.log(sigma);
+        this.method = method;
     }
     
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Gaussian.class, mu, sigma);
+    }
+
     @Override
     public Double mean() {
         return mu;
@@ -37,33 +65,104 @@ public class Gaussian extends AbstractDistribution<Double> {
     }
     
     @Override
-    public Double pdf(Double x) {
+    public double pdf(double x) {
         double z = (x - mu) / sigma;
         double logProb = (-(z*z) / 2) - HALF_LN_TWO_PI;
-        return Math.exp(logProb);
+        return Math.exp(logProb) / sigma;
     }
     
     @Override
-    public Double cdf(Double x) {
-        // lower bound is supposed to be -infinity.
-        // but 10 standard deviations below the mean should do the trick
-        double lowerBound = (-10.0 * sigma) + mu;
-        return Integration.gaussianQuadrature(this::pdf, lowerBound, x, 20) / sigma;
+    public double logPdf(double x) {
+        double z = (x - mu) / sigma;
+        return -0.5 * (z * z) - HALF_LN_TWO_PI - logSigma;
+    }
+
+    @Override
+    public double cdf(double x) {
+        return Functions.normalCdf((x - mu) / sigma);
+    }
+
+    @Override
+    public double logCdf(double x) {
+        return Functions.logNormalCdf((x - mu) / sigma);
+    }
+
+    @Override
+    public double survival(double x) {
+        return Functions.normalCdf((mu - x) / sigma);
+    }
+
+    @Override
+    public double logSurvival(double x) {
+        return Functions.logNormalCdf((mu - x) / sigma);
     }
     
     @Override
-    public Double inverseCdf(Double p) {
-        if (p == null || p < 0.0 || p > 1.0) {
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
             throw new IllegalArgumentException("Invalid probability: p = " + p);
         }
-        throw new UnsupportedOperationException();
+        return sigma * Functions.inverseNormalCdf(p) + mu;
     }
             
     @Override
-    public Double sample() {
-        return sigma * randomGenerator.nextGaussian() + mu;
+    public double sampleDouble() {
+        double z = (method == Method.ZIGGURAT) ? Ziggurat.nextGaussian(randomGenerator)
+                                               : randomGenerator.nextGaussian();
+        return sigma * z + mu;
+    }
+
+    @Override
+    public void fill(double[] dst, int off, int len) {
+        if (method == Method.ZIGGURAT) {
+            for (int i = off; i < off + len; i++) {
+                dst[i] = sigma * Ziggurat.nextGaussian(randomGenerator) + mu;
+            }
+        } else {
+            for (int i = off; i < off + len; i++) {
+                dst[i] = sigma * randomGenerator.nextGaussian() + mu;
+            }
+        }
     }
     
+    @Override
+    public void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double inverseSigma = 1.0 / sigma;
+        for (int i = 0; i < len; i++) {
+            double z = (x[xOff + i] - mu) * inverseSigma;
+            out[outOff + i] = Math.exp(-0.5 * (z * z) - HALF_LN_TWO_PI) * inverseSigma;
+        }
+    }
+
+    @Override
+    public void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double inverseSigma = 1.0 / sigma;
+        double logNormalizer = -HALF_LN_TWO_PI - logSigma;
+        for (int i = 0; i < len; i++) {
+            double z = (x[xOff + i] - mu) * inverseSigma;
+            out[outOff + i] = -0.5 * (z * z) + logNormalizer;
+        }
+    }
+
+    @Override
+    public void cdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double inverseSigma = 1.0 / sigma;
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = Functions.normalCdf((x[xOff + i] - mu) * inverseSigma);
+        }
+    }
+
+    @Override
+    public void inverseCdf(double[] p, int pOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            double q = p[pOff + i];
+            if (q < 0.0 || q > 1.0) {
+                throw new IllegalArgumentException("Invalid probability: p = " + q);
+            }
+            out[outOff + i] = sigma * Functions.inverseNormalCdf(q) + mu;
+        }
+    }
+
     public static void main(String[] args) {
         Distribution<Double> distribution = new Gaussian();
         List<Double> samples = distribution.sample(1000000);
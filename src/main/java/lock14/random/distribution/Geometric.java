@@ -1,13 +1,16 @@
 package lock14.random.distribution;
 
+import lock14.random.numerical.Functions;
 import lock14.random.stats.DescriptiveStatistics;
 import lock14.random.stats.Histogram;
 
 import java.util.List;
 import java.util.Random;
 
-public class Geometric extends AbstractDistribution<Integer> {
+public class Geometric extends AbstractIntDistribution {
     private final double p;
+    private final double logP;
+    private final double logQ;
 
     public Geometric(double p) {
         this(p, new Random());
@@ -16,8 +19,15 @@ public class Geometric extends AbstractDistribution<Integer> {
     public Geometric(double p, Random random) {
         super(random);
         this.p = p;
+        this.logP = Math.log(p);
+        this.logQ = Math.log1p(-p);
     }
     
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Geometric.class, p);
+    }
+
     @Override
     public Double mean() {
         return 1 / p;
@@ -29,7 +39,7 @@ public class Geometric extends AbstractDistribution<Integer> {
     }
     
     @Override
-    public Double pdf(Integer x) {
+    public double pdf(int x) {
         if (x < 1) {
             throw new IllegalArgumentException("argument cannot be less than 1: " + x);
         }
@@ -37,19 +47,66 @@ public class Geometric extends AbstractDistribution<Integer> {
     }
 
     @Override
-    public Double cdf(Integer x) {
+    public double logPdf(int x) {
+        if (x < 1) {
+            throw new IllegalArgumentException("argument cannot be less than 1: " + x);
+        }
+        return logP + (x - 1) * logQ;
+    }
+
+    @Override
+    public double cdf(int x) {
+        if (x < 1) {
+            throw new IllegalArgumentException("argument cannot be less than 1: " + x);
+        }
+        return -Math.expm1(x * logQ);
+    }
+
+    @Override
+    public double logCdf(int x) {
         if (x < 1) {
             throw new IllegalArgumentException("argument cannot be less than 1: " + x);
         }
-        return 1 - Math.pow(1 - p, x);
+        return Functions.logOneMinusExp(x * logQ);
+    }
+
+    @Override
+    public double survival(int x) {
+        return Math.exp(logSurvival(x));
+    }
+
+    @Override
+    public double logSurvival(int x) {
+        if (x < 1) {
+            throw new IllegalArgumentException("argument cannot be less than 1: " + x);
+        }
+        return x * logQ;
     }
     
     @Override
-    public Integer inverseCdf(Double p) {
-        if (p == null || p < 0.0 || p > 1.0) {
+    public int inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
             throw new IllegalArgumentException("Invalid probability: p = " + p);
         }
-        return (int) Math.ceil(Math.log(1 - p) / Math.log(1 - this.p));
+        return Math.max(1, (int) Math.ceil(Math.log(1 - p) / logQ));
+    }
+
+    @Override
+    public int sampleInt() {
+        return Math.max(1, (int) Math.ceil(BulkKernels.log(1.0 - randomGenerator.nextDouble()) / logQ));
+    }
+
+    @Override
+    public void fill(int[] dst, int off, int len) {
+        double[] block = new double[Math.min(len, BulkKernels.BLOCK_SIZE)];
+        double inverseLogQ = 1.0 / logQ;
+        for (int start = off; start < off + len; start += block.length) {
+            int n = Math.min(block.length, off + len - start);
+            BulkKernels.openUniforms(randomGenerator, block, 0, n);
+            for (int i = 0; i < n; i++) {
+                dst[start + i] = Math.max(1, (int) Math.ceil(BulkKernels.log(block[i]) * inverseLogQ));
+            }
+        }
     }
     
     public static void main(String[] args) {
@@ -0,0 +1,79 @@
+package lock14.random.distribution;
+
+import lock14.random.sampling.IntSampler;
+
+/**
+ * A discrete distribution whose mass function, cumulative distribution and
+ * inverse, and their logs and upper tails, can be evaluated on primitive
+ * values. The boxed methods of {@link Distribution} are expected to delegate
+ * to these.
+ */
+public interface IntDistribution extends Distribution<Integer>, IntSampler {
+    double pdf(int x);
+    double cdf(int x);
+    int inverseCdf(double p);
+
+    default double logPdf(int x) {
+        return Math.log(pdf(x));
+    }
+
+    default double logCdf(int x) {
+        return Math.log(cdf(x));
+    }
+
+    /**
+     * P(X > x), which the distributions compute directly so that it keeps
+     * its relative precision in the upper tail.
+     */
+    default double survival(int x) {
+        return 1.0 - cdf(x);
+    }
+
+    default double logSurvival(int x) {
+        return Math.log(survival(x));
+    }
+
+    /**
+     * Evaluates the mass function at x[xOff], ..., x[xOff + len - 1] into
+     * out, starting at outOff.
+     */
+    default void pdf(int[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = pdf(x[xOff + i]);
+        }
+    }
+
+    default void pdf(int[] x, double[] out) {
+        pdf(x, 0, out, 0, x.length);
+    }
+
+    default void logPdf(int[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = logPdf(x[xOff + i]);
+        }
+    }
+
+    default void logPdf(int[] x, double[] out) {
+        logPdf(x, 0, out, 0, x.length);
+    }
+
+    default void cdf(int[] x, int xOff, double[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = cdf(x[xOff + i]);
+        }
+    }
+
+    default void cdf(int[] x, double[] out) {
+        cdf(x, 0, out, 0, x.length);
+    }
+
+    default void inverseCdf(double[] p, int pOff, int[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = inverseCdf(p[pOff + i]);
+        }
+    }
+
+    default void inverseCdf(double[] p, int[] out) {
+        inverseCdf(p, 0, out, 0, p.length);
+    }
+}
@@ -0,0 +1,457 @@
+package lock14.random.distribution;
+
+import lock14.random.sampling.AliasSampler;
+import lock14.random.sampling.DoubleSampler;
+import lock14.random.stats.DescriptiveStatistics;
+import lock14.random.stats.Histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * A finite mixture of continuous distributions: with probability w[i] a
+ * variate is drawn from component i. The weights are normalized to sum to
+ * one, and components of weight zero are left out.
+ * <p>
+ * The density, cdf and upper tail are the weighted sums of the components',
+ * and their logs are log-sum-exps of the components' logs, so they keep
+ * their precision in the tails where the sums underflow. The inverse cdf has
+ * no closed form and is solved for numerically. Components implementing
+ * {@link DoubleDistribution} are evaluated and sampled without boxing, using
+ * their bulk methods for arrays.
+ * <p>
+ * A variate picks its component from an alias table in constant time,
+ * whatever the number of components, and is then drawn by the component's
+ * own sampler with the component's own generator.
+ */
+public class Mixture extends AbstractDoubleDistribution {
+    private static final int MAX_ITERATIONS = 200;
+    private final List<Distribution<Double>> components;
+    private final double[] weights;
+    private final double[] logWeights;
+    private final AliasSampler selector;
+
+    public Mixture(double[] weights, List<? extends Distribution<Double>> components) {
+        this(weights, components, new Random());
+    }
+
+    public Mixture(double[] weights, List<? extends Distribution<Double>> components, Random random) {
+        super(random);
+        if (weights.length != components.size()) {
+            throw new IllegalArgumentException(
+                    String.format("%d weights given for %d components", weights.length, components.size()));
+        }
+        double total = 0.0;
+        int positive = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            total += weight;
+            positive += (weight > 0.0) ? 1 : 0;
+        }
+        if (total <= 0.0) {
+            throw new IllegalArgumentException("Weights must not all be zero");
+        }
+        // components of weight zero are dropped, so that no sum multiplies
+        // a value of theirs, possibly infinite, by zero
+        this.components = new ArrayList<>(positive);
+        this.weights = new double[positive];
+        this.logWeights = new double[positive];
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0.0) {
+                int k = this.components.size();
+                this.components.add(components.get(i));
+                this.weights[k] = weights[i] / total;
+                this.logWeights[k] = Math.log(this.weights[k]);
+            }
+        }
+        this.selector = new AliasSampler(this.weights, random);
+    }
+
+    /**
+     * Seeds this mixture's generator and each component's with seeds derived
+     * from {@code seed}, so that the whole mixture is reproducible.
+     */
+    @Override
+    public void setSeed(long seed) {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (Distribution<Double> component : components) {
+            component.setSeed(seeds.nextLong());
+        }
+        randomGenerator.setSeed(seed);
+    }
+
+    /**
+     * The weights, keyed together with the keys of the components.
+     */
+    @Override
+    public ParameterKey parameterKey() {
+        List<Object> parts = new ArrayList<>(components.size());
+        for (Distribution<Double> component : components) {
+            parts.add(component.parameterKey());
+        }
+        return ParameterKey.of(Mixture.class, weights, parts);
+    }
+
+    @Override
+    public Double mean() {
+        double mean = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            mean += weights[i] * components.get(i).mean();
+        }
+        return mean;
+    }
+
+    /**
+     * The law of total variance: the mean of the component variances plus
+     * the variance of the component means.
+     */
+    @Override
+    public Double variance() {
+        double mean = mean();
+        double variance = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            double deviation = components.get(i).mean() - mean;
+            variance += weights[i] * (components.get(i).variance() + deviation * deviation);
+        }
+        return variance;
+    }
+
+    @Override
+    public double pdf(double x) {
+        double density = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            density += weights[i] * pdf(components.get(i), x);
+        }
+        return density;
+    }
+
+    @Override
+    public double logPdf(double x) {
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            double term = logWeights[i] + logPdf(components.get(i), x);
+            if (term > max) {
+                sum = sum * Math.exp(max - term) + 1.0;
+                max = term;
+            } else if (term > Double.NEGATIVE_INFINITY) {
+                sum += Math.exp(term - max);
+            }
+        }
+        return max + Math.log(sum);
+    }
+
+    @Override
+    public double cdf(double x) {
+        double probability = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            probability += weights[i] * cdf(components.get(i), x);
+        }
+        return Math.min(probability, 1.0);
+    }
+
+    @Override
+    public double logCdf(double x) {
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            double term = logWeights[i] + logCdf(components.get(i), x);
+            if (term > max) {
+                sum = sum * Math.exp(max - term) + 1.0;
+                max = term;
+            } else if (term > Double.NEGATIVE_INFINITY) {
+                sum += Math.exp(term - max);
+            }
+        }
+        return Math.min(max + Math.log(sum), 0.0);
+    }
+
+    @Override
+    public double survival(double x) {
+        double probability = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            probability += weights[i] * survival(components.get(i), x);
+        }
+        return Math.min(probability, 1.0);
+    }
+
+    @Override
+    public double logSurvival(double x) {
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            double term = logWeights[i] + logSurvival(components.get(i), x);
+            if (term > max) {
+                sum = sum * Math.exp(max - term) + 1.0;
+                max = term;
+            } else if (term > Double.NEGATIVE_INFINITY) {
+                sum += Math.exp(term - max);
+            }
+        }
+        return Math.min(max + Math.log(sum), 0.0);
+    }
+
+    /**
+     * Solves log F(x) = log p by Newton's method, or log S(x) = log(1 - p)
+     * on the upper tail for p above 1/2, falling back to bisection whenever
+     * a step leaves the bracket. Working with the logs keeps the precision
+     * of far tail quantiles, and makes the iteration converge quickly in
+     * power law tails, where it would crawl on the cdf itself. Every
+     * component has F_i(x) <= p at the smallest of the components'
+     * p-quantiles and F_i(x) >= p at the largest, so those two bracket the
+     * root.
+     */
+    @Override
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+        double x = 0.0;
+        for (int i = 0; i < components.size(); i++) {
+            double quantile = inverseCdf(components.get(i), p);
+            lower = Math.min(lower, quantile);
+            upper = Math.max(upper, quantile);
+            x += weights[i] * quantile;
+        }
+        if (p == 0.0) {
+            return lower;
+        } else if (p == 1.0 || lower == upper) {
+            return upper;
+        }
+        boolean upperTail = p > 0.5;
+        // 1 - p is exact for p > 1/2
+        double target = upperTail ? Math.log(1.0 - p) : Math.log(p);
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            if (!(x > lower && x < upper)) {
+                x = 0.5 * (lower + upper);
+                if (x <= lower || x >= upper) {
+                    break;
+                }
+            }
+            // g increases with x in both cases
+            double logTail = upperTail ? logSurvival(x) : logCdf(x);
+            double g = upperTail ? target - logTail : logTail - target;
+            if (g == 0.0) {
+                break;
+            } else if (g < 0.0) {
+                lower = x;
+            } else {
+                upper = x;
+            }
+            // g' = pdf / tail, formed in log space as both can underflow
+            double step = g * Math.exp(logTail - logPdf(x));
+            x -= step;
+            if (Math.abs(step) <= 1e-15 * Math.abs(x) || Math.abs(step) < Double.MIN_NORMAL) {
+                break;
+            }
+        }
+        return x;
+    }
+
+    @Override
+    public double sampleDouble() {
+        return sample(components.get(selector.sampleInt()));
+    }
+
+    /**
+     * Draws the component of each variate in a block first, then has each
+     * component fill all of its variates in the block with one call to its
+     * bulk sampler, and scatters them back to their places.
+     */
+    @Override
+    public void fill(double[] dst, int off, int len) {
+        int k = components.size();
+        int blockSize = Math.min(len, BulkKernels.BLOCK_SIZE);
+        int[] picks = new int[blockSize];
+        int[] starts = new int[k + 1];
+        int[] order = new int[blockSize];
+        double[] variates = new double[blockSize];
+        for (int block = 0; block < len; block += blockSize) {
+            int n = Math.min(blockSize, len - block);
+            selector.fill(picks, 0, n);
+            // counting sort of the positions in the block by component
+            Arrays.fill(starts, 0);
+            for (int i = 0; i < n; i++) {
+                starts[picks[i] + 1]++;
+            }
+            for (int j = 0; j < k; j++) {
+                starts[j + 1] += starts[j];
+            }
+            for (int i = 0; i < n; i++) {
+                order[starts[picks[i]]++] = i;
+            }
+            // starts[j] is now the end of component j's run
+            int start = 0;
+            for (int j = 0; j < k; j++) {
+                if (starts[j] > start) {
+                    components.get(j).fill(variates, start, starts[j] - start);
+                }
+                start = starts[j];
+            }
+            for (int i = 0; i < n; i++) {
+                dst[off + block + order[i]] = variates[i];
+            }
+        }
+    }
+
+    @Override
+    public void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double[] terms = new double[Math.min(len, BulkKernels.BLOCK_SIZE)];
+        double[] sums = new double[terms.length];
+        for (int block = 0; block < len; block += terms.length) {
+            int n = Math.min(terms.length, len - block);
+            Arrays.fill(sums, 0, n, 0.0);
+            for (int j = 0; j < components.size(); j++) {
+                pdf(components.get(j), x, xOff + block, terms, n);
+                double weight = weights[j];
+                for (int i = 0; i < n; i++) {
+                    sums[i] += weight * terms[i];
+                }
+            }
+            System.arraycopy(sums, 0, out, outOff + block, n);
+        }
+    }
+
+    @Override
+    public void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double[] terms = new double[Math.min(len, BulkKernels.BLOCK_SIZE)];
+        double[] maxima = new double[terms.length];
+        double[] sums = new double[terms.length];
+        for (int block = 0; block < len; block += terms.length) {
+            int n = Math.min(terms.length, len - block);
+            Arrays.fill(maxima, 0, n, Double.NEGATIVE_INFINITY);
+            Arrays.fill(sums, 0, n, 0.0);
+            for (int j = 0; j < components.size(); j++) {
+                logPdf(components.get(j), x, xOff + block, terms, n);
+                double logWeight = logWeights[j];
+                for (int i = 0; i < n; i++) {
+                    double term = logWeight + terms[i];
+                    if (term > maxima[i]) {
+                        sums[i] = sums[i] * Math.exp(maxima[i] - term) + 1.0;
+                        maxima[i] = term;
+                    } else if (term > Double.NEGATIVE_INFINITY) {
+                        sums[i] += Math.exp(term - maxima[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                out[outOff + block + i] = maxima[i] + Math.log(sums[i]);
+            }
+        }
+    }
+
+    @Override
+    public void cdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double[] terms = new double[Math.min(len, BulkKernels.BLOCK_SIZE)];
+        double[] sums = new double[terms.length];
+        for (int block = 0; block < len; block += terms.length) {
+            int n = Math.min(terms.length, len - block);
+            Arrays.fill(sums, 0, n, 0.0);
+            for (int j = 0; j < components.size(); j++) {
+                cdf(components.get(j), x, xOff + block, terms, n);
+                double weight = weights[j];
+                for (int i = 0; i < n; i++) {
+                    sums[i] += weight * terms[i];
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                out[outOff + block + i] = Math.min(sums[i], 1.0);
+            }
+        }
+    }
+
+    private static double pdf(Distribution<Double> component, double x) {
+        return (component instanceof DoubleDistribution) ? ((DoubleDistribution) component).pdf(x)
+                                                         : component.pdf(x);
+    }
+
+    private static double logPdf(Distribution<Double> component, double x) {
+        return (component instanceof DoubleDistribution) ? ((DoubleDistribution) component).logPdf(x)
+                                                         : component.logPdf(x);
+    }
+
+    private static double cdf(Distribution<Double> component, double x) {
+        return (component instanceof DoubleDistribution) ? ((DoubleDistribution) component).cdf(x)
+                                                         : component.cdf(x);
+    }
+
+    private static double logCdf(Distribution<Double> component, double x) {
+        return (component instanceof DoubleDistribution) ? ((DoubleDistribution) component).logCdf(x)
+                                                         : component.logCdf(x);
+    }
+
+    private static double survival(Distribution<Double> component, double x) {
+        return (component instanceof DoubleDistribution) ? ((DoubleDistribution) component).survival(x)
+                                                         : component.survival(x);
+    }
+
+    private static double logSurvival(Distribution<Double> component, double x) {
+        return (component instanceof DoubleDistribution) ? ((DoubleDistribution) component).logSurvival(x)
+                                                         : component.logSurvival(x);
+    }
+
+    private static double inverseCdf(Distribution<Double> component, double p) {
+        return (component instanceof DoubleDistribution) ? ((DoubleDistribution) component).inverseCdf(p)
+                                                         : component.inverseCdf(p);
+    }
+
+    private static double sample(Distribution<Double> component) {
+        return (component instanceof DoubleSampler) ? ((DoubleSampler) component).sampleDouble()
+                                                    : component.sample();
+    }
+
+    private static void pdf(Distribution<Double> component, double[] x, int xOff, double[] out, int len) {
+        if (component instanceof DoubleDistribution) {
+            ((DoubleDistribution) component).pdf(x, xOff, out, 0, len);
+        } else {
+            for (int i = 0; i < len; i++) {
+                out[i] = component.pdf(x[xOff + i]);
+            }
+        }
+    }
+
+    private static void logPdf(Distribution<Double> component, double[] x, int xOff, double[] out, int len) {
+        if (component instanceof DoubleDistribution) {
+            ((DoubleDistribution) component).logPdf(x, xOff, out, 0, len);
+        } else {
+            for (int i = 0; i < len; i++) {
+                out[i] = component.logPdf(x[xOff + i]);
+            }
+        }
+    }
+
+    private static void cdf(Distribution<Double> component, double[] x, int xOff, double[] out, int len) {
+        if (component instanceof DoubleDistribution) {
+            ((DoubleDistribution) component).cdf(x, xOff, out, 0, len);
+        } else {
+            for (int i = 0; i < len; i++) {
+                out[i] = component.cdf(x[xOff + i]);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        Distribution<Double> distribution = new Mixture(new double[] {0.7, 0.3},
+                                                        Arrays.asList(new Gaussian(-2.0, 1.0),
+                                                                      new Gaussian(3.0, 0.5)));
+        List<Double> samples = distribution.sample(1000000);
+        DescriptiveStatistics stats = new DescriptiveStatistics(samples);
+        System.out.println("True mean: " + distribution.mean());
+        System.out.println("True variance: " + distribution.variance());
+        System.out.println("Sample mean: " + stats.mean());
+        System.out.println("Sample variance: " + stats.variance());
+        for (int i = 0; i < 30; i++) {
+            System.out.print("_");
+        }
+        System.out.println();
+        Histogram<Double> histogram = new Histogram<>(stats, 20);
+        histogram.print();
+    }
+}
@@ -0,0 +1,79 @@
+package lock14.random.distribution;
+
+import lock14.random.util.ForkJoinChunks;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates densities, cdfs and quantiles over large arrays on a fork-join
+ * pool.
+ * <p>
+ * The input is cut into chunks of a fixed size, each evaluated by one call
+ * to the distribution's bulk method, so the per-class loops still do the
+ * work and a chunk is never split further. Evaluation does not touch a
+ * distribution's random generator, so a single instance can be shared by
+ * all the chunks.
+ */
+public class ParallelEvaluator {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    /**
+     * A bulk evaluation such as {@code distribution::pdf}, writing f(x[xOff + i])
+     * to out[outOff + i] for i < len.
+     */
+    @FunctionalInterface
+    public interface ArrayFunction {
+        void apply(double[] x, int xOff, double[] out, int outOff, int len);
+    }
+
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    public ParallelEvaluator() {
+        this(DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public ParallelEvaluator(int chunkSize) {
+        this(chunkSize, ForkJoinPool.commonPool());
+    }
+
+    public ParallelEvaluator(int chunkSize, ForkJoinPool pool) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    public void pdf(DoubleDistribution distribution, double[] x, double[] out) {
+        evaluate(distribution::pdf, x, 0, out, 0, x.length);
+    }
+
+    public void logPdf(DoubleDistribution distribution, double[] x, double[] out) {
+        evaluate(distribution::logPdf, x, 0, out, 0, x.length);
+    }
+
+    public void cdf(DoubleDistribution distribution, double[] x, double[] out) {
+        evaluate(distribution::cdf, x, 0, out, 0, x.length);
+    }
+
+    public void inverseCdf(DoubleDistribution distribution, double[] p, double[] out) {
+        evaluate(distribution::inverseCdf, p, 0, out, 0, p.length);
+    }
+
+    /**
+     * Applies {@code function} to x[xOff], ..., x[xOff + len - 1], writing
+     * the results to out starting at outOff.
+     */
+    public void evaluate(ArrayFunction function, double[] x, int xOff, double[] out, int outOff,
+                         int len) {
+        if (xOff < 0 || outOff < 0 || len < 0 || xOff > x.length - len || outOff > out.length - len) {
+            throw new ArrayIndexOutOfBoundsException(
+                    "xOff = " + xOff + ", outOff = " + outOff + ", len = " + len);
+        }
+        ForkJoinChunks.forEach(pool, ForkJoinChunks.count(len, chunkSize), chunk -> {
+            int start = chunk * chunkSize;
+            function.apply(x, xOff + start, out, outOff + start, Math.min(chunkSize, len - start));
+        });
+    }
+}
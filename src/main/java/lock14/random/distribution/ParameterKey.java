@@ -0,0 +1,62 @@
+package lock14.random.distribution;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identifies a distribution by its class and parameters, so that separately
+ * constructed instances of the same distribution compare equal. The
+ * generator and the sampling method are not part of the key, as they do not
+ * change the distribution itself.
+ * <p>
+ * Parameters are compared bit for bit, as {@link Double#equals} does, so
+ * 0.1 + 0.2 and 0.3 are different keys.
+ */
+public final class ParameterKey {
+    private final Class<?> type;
+    private final double[] parameters;
+    private final List<?> parts;
+    private final int hash;
+
+    private ParameterKey(Class<?> type, double[] parameters, List<?> parts) {
+        this.type = type;
+        this.parameters = parameters;
+        this.parts = parts;
+        this.hash = (31 * type.getName().hashCode() + Arrays.hashCode(parameters)) * 31 + parts.hashCode();
+    }
+
+    public static ParameterKey of(Class<?> type, double... parameters) {
+        return new ParameterKey(type, parameters.clone(), Arrays.asList());
+    }
+
+    /**
+     * A key for a distribution built from others, such as a mixture, with
+     * the keys of its parts.
+     */
+    public static ParameterKey of(Class<?> type, double[] parameters, List<?> parts) {
+        return new ParameterKey(type, parameters.clone(), parts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParameterKey)) {
+            return false;
+        }
+        ParameterKey other = (ParameterKey) o;
+        return hash == other.hash && type == other.type && Arrays.equals(parameters, other.parameters)
+               && parts.equals(other.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return type.getSimpleName() + Arrays.toString(parameters) + (parts.isEmpty() ? "" : parts.toString());
+    }
+}
@@ -0,0 +1,185 @@
+package lock14.random.distribution;
+
+import lock14.random.numerical.Functions;
+import lock14.random.stats.DescriptiveStatistics;
+import lock14.random.stats.Histogram;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The Poisson distribution with mean lambda.
+ * <p>
+ * Variates are drawn by sequential inversion when lambda is below 10 and by
+ * Hormann's transformed rejection with squeeze (PTRS) otherwise, so a draw
+ * costs O(1) uniforms however large the mean is.
+ * <p>
+ * Source: W. Hormann, "The transformed rejection method for generating
+ * Poisson random variables", Insurance: Mathematics and Economics 12(1), 1993.
+ */
+public class Poisson extends AbstractIntDistribution {
+    private static final double PTRS_THRESHOLD = 10.0;
+    private final double lambda;
+    private final double logLambda;
+    private final double expMinusLambda;
+    // PTRS constants
+    private final double a;
+    private final double b;
+    private final double vr;
+    private final double logInvAlpha;
+
+    public Poisson(double lambda) {
+        this(lambda, new Random());
+    }
+
+    public Poisson(double lambda, Random random) {
+        super(random);
+        if (!(lambda > 0.0) || Double.isInfinite(lambda)) {
+            throw new IllegalArgumentException("Lambda must be greater than zero");
+        }
+        this.lambda = lambda;
+        this.logLambda = Math.log(lambda);
+        this.expMinusLambda = Math.exp(-lambda);
+        this.b = 0.931 + 2.53 * Math.sqrt(lambda);
+        this.a = -0.059 + 0.02483 * b;
+        this.vr = 0.9277 - 3.6224 / (b - 2.0);
+        this.logInvAlpha = Math.log(1.1239 + 1.1328 / (b - 3.4));
+    }
+
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Poisson.class, lambda);
+    }
+
+    @Override
+    public Double mean() {
+        return lambda;
+    }
+
+    @Override
+    public Double variance() {
+        return lambda;
+    }
+
+    @Override
+    public double pdf(int x) {
+        return Math.exp(logPdf(x));
+    }
+
+    @Override
+    public double logPdf(int x) {
+        if (x < 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return x * logLambda - lambda - Functions.logGamma(x + 1.0);
+    }
+
+    @Override
+    public double cdf(int x) {
+        if (x < 0) {
+            return 0.0;
+        }
+        return Functions.regularizedGammaQ(lambda, x + 1.0);
+    }
+
+    @Override
+    public double logCdf(int x) {
+        double cdf = cdf(x);
+        return (cdf < 0.5) ? Math.log(cdf) : Math.log1p(-survival(x));
+    }
+
+    @Override
+    public double survival(int x) {
+        if (x < 0) {
+            return 1.0;
+        }
+        return Functions.regularizedGammaP(lambda, x + 1.0);
+    }
+
+    @Override
+    public double logSurvival(int x) {
+        double survival = survival(x);
+        return (survival < 0.5) ? Math.log(survival) : Math.log1p(-cdf(x));
+    }
+
+    @Override
+    public int inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        if (p == 0.0) {
+            return 0;
+        }
+        if (p == 1.0) {
+            return Integer.MAX_VALUE;
+        }
+        // Cornish-Fisher start, then walk to the smallest k with cdf(k) >= p
+        double z = Functions.inverseNormalCdf(p);
+        double guess = lambda + Math.sqrt(lambda) * z + (z * z - 1.0) / 6.0;
+        int k = (int) Math.max(0.0, Math.min(Math.floor(guess), Integer.MAX_VALUE - 1.0));
+        if (cdf(k) >= p) {
+            while (k > 0 && cdf(k - 1) >= p) {
+                k--;
+            }
+        } else {
+            do {
+                k++;
+            } while (cdf(k) < p);
+        }
+        return k;
+    }
+
+    @Override
+    public int sampleInt() {
+        return (lambda < PTRS_THRESHOLD) ? inversion() : ptrs();
+    }
+
+    private int inversion() {
+        double u = randomGenerator.nextDouble();
+        double probability = expMinusLambda;
+        double cumulative = probability;
+        int k = 0;
+        // stop if the terms underflow before the sum reaches u through rounding
+        while (u > cumulative && probability > 0.0) {
+            k++;
+            probability *= lambda / k;
+            cumulative += probability;
+        }
+        return k;
+    }
+
+    private int ptrs() {
+        while (true) {
+            double u = randomGenerator.nextDouble() - 0.5;
+            double v = randomGenerator.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            long k = (long) Math.floor((2.0 * a / us + b) * u + lambda + 0.43);
+            if (us >= 0.07 && v <= vr) {
+                return (int) k;
+            }
+            if (k < 0 || k > Integer.MAX_VALUE || (us < 0.013 && v > us)) {
+                continue;
+            }
+            if (Math.log(v) + logInvAlpha - Math.log(a / (us * us) + b)
+                <= k * logLambda - lambda - Functions.logGamma(k + 1.0)) {
+                return (int) k;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        Distribution<Integer> distribution = new Poisson(42.5);
+        List<Integer> samples = distribution.sample(1000000);
+        DescriptiveStatistics stats = new DescriptiveStatistics(samples);
+        System.out.println("True mean: " + distribution.mean());
+        System.out.println("True variance: " + distribution.variance());
+        System.out.println("Sample mean: " + stats.mean());
+        System.out.println("Sample variance: " + stats.variance());
+        for (int i = 0; i < 30; i++) {
+            System.out.print("_");
+        }
+        System.out.println();
+        Histogram<Integer> histogram = new Histogram<>(stats, 20);
+        histogram.print();
+    }
+}
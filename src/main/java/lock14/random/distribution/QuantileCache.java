@@ -0,0 +1,324 @@
+package lock14.random.distribution;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.DoubleStream;
+
+/**
+ * A bounded, thread safe memo of inverse cdf values, for quantiles that are
+ * requested over and over and are expensive to compute, such as those of the
+ * beta, gamma and t distributions, which are solved for iteratively.
+ * <p>
+ * Entries are keyed by the distribution's {@link Distribution#parameterKey()}
+ * and the probability, so separately constructed instances with the same
+ * parameters share entries. A large cache is split into segments by key
+ * hash, one for every 64 entries of its size up to 16, each a least recently
+ * used map under its own lock, so lookups of different keys rarely contend.
+ * The size bound is kept over the whole cache, not per segment: nothing is
+ * evicted until the cache holds more than its maximum size, and then the
+ * least recently used entry of a segment is. A miss computes the quantile
+ * outside the lock; two threads missing on the same key at once may both
+ * compute it, which is harmless since the result is the same.
+ * <p>
+ * Hits, misses and evictions are counted with {@link LongAdder}s, which
+ * do not contend on the lookup path.
+ */
+public class QuantileCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 1 << 12;
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final int maximumSize;
+    private final Segment[] segments;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public QuantileCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * A cache of at most {@code maximumSize} quantiles.
+     */
+    public QuantileCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        int count = Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / MIN_SEGMENT_SIZE));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns a view of {@code distribution} whose inverse cdf goes through
+     * this cache. Everything else, sampling included, is delegated to the
+     * distribution unchanged. The parameter key is taken once, here.
+     */
+    public <N extends Number> Distribution<N> wrap(Distribution<N> distribution) {
+        return new CachedDistribution<>(this, distribution);
+    }
+
+    /**
+     * The inverse cdf of {@code distribution} at p, from the cache when
+     * present.
+     */
+    public <N extends Number> N inverseCdf(Distribution<N> distribution, double p) {
+        return inverseCdf(distribution.parameterKey(), distribution, p);
+    }
+
+    @SuppressWarnings("unchecked")
+    <N extends Number> N inverseCdf(Object parameterKey, Distribution<N> distribution, double p) {
+        Key key = new Key(parameterKey, p);
+        int index = Math.floorMod(key.hash, segments.length);
+        Segment segment = segments[index];
+        Number quantile;
+        synchronized (segment) {
+            quantile = segment.get(key);
+        }
+        if (quantile != null) {
+            hits.increment();
+            return (N) quantile;
+        }
+        misses.increment();
+        N computed = distribution.inverseCdf(p);
+        boolean added;
+        synchronized (segment) {
+            added = segment.put(key, computed) == null;
+        }
+        if (added && size.incrementAndGet() > maximumSize) {
+            evict(index);
+        }
+        return computed;
+    }
+
+    // removes least recently used entries until the cache is back within its
+    // bound, first from the segment that was added to. An entry alone in its
+    // segment is left, as it may be the one just added; with more entries
+    // than segments some other segment always holds two.
+    private void evict(int start) {
+        int i = start;
+        while (size.get() > maximumSize) {
+            Segment segment = segments[i];
+            synchronized (segment) {
+                if (size.get() > maximumSize && segment.size() > 1) {
+                    segment.removeEldest();
+                    size.decrementAndGet();
+                    evictions.increment();
+                    continue;
+                }
+            }
+            i = (i + 1) % segments.length;
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * The fraction of lookups that were hits, NaN before the first lookup.
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return (total == 0) ? Double.NaN : (double) hitCount / total;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Removes every entry. The counters are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size.addAndGet(-segment.size());
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QuantileCache[size = %d, hits = %d, misses = %d, evictions = %d]",
+                             size(), hitCount(), missCount(), evictionCount());
+    }
+
+    private static final class Key {
+        private final Object parameters;
+        private final long pBits;
+        private final int hash;
+
+        Key(Object parameters, double p) {
+            this.parameters = parameters;
+            this.pBits = Double.doubleToLongBits(p);
+            // spread the bits, as nearby p and similar keys hash close together
+            int h = 31 * parameters.hashCode() + Long.hashCode(pBits);
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return pBits == other.pBits && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, Number> {
+        private static final long serialVersionUID = 1L;
+
+        Segment() {
+            // access order, so the eldest entry is the least recently used
+            super(16, 0.75f, true);
+        }
+
+        void removeEldest() {
+            Iterator<Key> keys = keySet().iterator();
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static final class CachedDistribution<N extends Number> implements Distribution<N> {
+        private final QuantileCache cache;
+        private final Distribution<N> distribution;
+        private final Object parameterKey;
+
+        CachedDistribution(QuantileCache cache, Distribution<N> distribution) {
+            this.cache = cache;
+            this.distribution = distribution;
+            this.parameterKey = distribution.parameterKey();
+        }
+
+        @Override
+        public N inverseCdf(Double p) {
+            if (p == null) {
+                return distribution.inverseCdf(p);
+            }
+            return cache.inverseCdf(parameterKey, distribution, p);
+        }
+
+        @Override
+        public Object parameterKey() {
+            return parameterKey;
+        }
+
+        @Override
+        public Double mean() {
+            return distribution.mean();
+        }
+
+        @Override
+        public Double variance() {
+            return distribution.variance();
+        }
+
+        @Override
+        public Double pdf(N x) {
+            return distribution.pdf(x);
+        }
+
+        @Override
+        public Double cdf(N x) {
+            return distribution.cdf(x);
+        }
+
+        @Override
+        public Double logPdf(N x) {
+            return distribution.logPdf(x);
+        }
+
+        @Override
+        public Double logCdf(N x) {
+            return distribution.logCdf(x);
+        }
+
+        @Override
+        public Double survival(N x) {
+            return distribution.survival(x);
+        }
+
+        @Override
+        public Double logSurvival(N x) {
+            return distribution.logSurvival(x);
+        }
+
+        @Override
+        public void setSeed(long seed) {
+            distribution.setSeed(seed);
+        }
+
+        @Override
+        public N sample() {
+            return distribution.sample();
+        }
+
+        @Override
+        public List<N> sample(int n) {
+            return distribution.sample(n);
+        }
+
+        @Override
+        public void fill(double[] dst, int off, int len) {
+            distribution.fill(dst, off, len);
+        }
+
+        @Override
+        public double[] sampleArray(int n) {
+            return distribution.sampleArray(n);
+        }
+
+        @Override
+        public DoubleStream doubles(long n) {
+            return distribution.doubles(n);
+        }
+
+        @Override
+        public String toString() {
+            return "Cached " + distribution;
+        }
+    }
+
+    public static void main(String[] args) {
+        // a cache is never to evict while it holds no more keys than its size
+        for (int maximumSize : new int[] {1, 4, 16, 64, 128, 1000, DEFAULT_MAXIMUM_SIZE}) {
+            QuantileCache cache = new QuantileCache(maximumSize);
+            int keys = Math.min(maximumSize, 8);
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < maximumSize; i++) {
+                    cache.inverseCdf(new Beta(2.0 + i % keys, 3.0), (double) (i / keys + 1) / (maximumSize + 1));
+                }
+            }
+            System.out.println(cache);
+            if (cache.evictionCount() != 0 || cache.size() != maximumSize) {
+                throw new IllegalStateException("QuantileCache(" + maximumSize + ") evicted below its size");
+            }
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package lock14.random.distribution;
 
 import lock14.random.numerical.Functions;
+import lock14.random.stats.DescriptiveStatistics;
+import lock14.random.stats.Histogram;
 
+import java.util.List;
 import java.util.Random;
-import java.util.function.Function;
 
-public class StudentT extends AbstractDistribution<Double>{
-    private final double inverseCdfConst;
-    private final double pdfConst;
+/**
+ * Student's t distribution with the given, not necessarily integral, degrees
+ * of freedom.
+ */
+public class StudentT extends AbstractDoubleDistribution {
+    private static final double FAR_TAIL = 1e100;
     private final double df; // degrees of freedom
+    private final double sqrtDf;
+    private final double logBeta; // log B(df / 2, 1 / 2)
+    private final double logNormalizer;
+    private final double polarExponent;
 
     public StudentT(double degreesOfFreedom) {
         this(degreesOfFreedom, new Random());
@@ -16,12 +25,19 @@ public class StudentT extends AbstractDistribution<Double>{
 
     public StudentT(double degreesOfFreedom, Random random) {
         super(random);
-        if (degreesOfFreedom <= 0.0) {
+        if (!(degreesOfFreedom > 0.0)) {
             throw new IllegalArgumentException("Degrees of freedom must be greater than zero");
         }
         df = degreesOfFreedom;
-        pdfConst = Math.sqrt(df) * Functions.beta(0.5, df / 2);
-        inverseCdfConst = (Functions.gamma((df * 0.5) + 0.5) / Functions.gamma(0.5 * df)) / Math.sqrt(df * Math.PI);
+        sqrtDf = Math.sqrt(df);
+        logBeta = logBetaHalf(0.5 * df);
+        logNormalizer = -0.5 * Math.log(df) - logBeta;
+        polarExponent = -2.0 / df;
+    }
+
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(StudentT.class, df);
     }
 
     @Override
@@ -41,27 +57,220 @@ public class StudentT extends AbstractDistribution<Double>{
     }
 
     @Override
-    public Double pdf(Double t) {
-        return Math.pow(1 + ((t * t) / df), -(df + 1) * 0.5) / pdfConst;
+    public double pdf(double t) {
+        return Math.exp(logPdf(t));
+    }
+
+    @Override
+    public double logPdf(double t) {
+        return logNormalizer - 0.5 * (df + 1.0) * logOnePlusSquare(t / sqrtDf);
+    }
+
+    @Override
+    public void pdf(double[] t, int tOff, double[] out, int outOff, int len) {
+        double exponent = -0.5 * (df + 1.0);
+        double inverseSqrtDf = 1.0 / sqrtDf;
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = Math.exp(logNormalizer + exponent * logOnePlusSquare(t[tOff + i] * inverseSqrtDf));
+        }
+    }
+
+    @Override
+    public void logPdf(double[] t, int tOff, double[] out, int outOff, int len) {
+        double exponent = -0.5 * (df + 1.0);
+        double inverseSqrtDf = 1.0 / sqrtDf;
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = logNormalizer + exponent * logOnePlusSquare(t[tOff + i] * inverseSqrtDf);
+        }
+    }
+
+    @Override
+    public double cdf(double t) {
+        if (Double.isNaN(t)) {
+            return Double.NaN;
+        }
+        double tail = upperTail(Math.abs(t));
+        return (t > 0.0) ? 1.0 - tail : tail;
+    }
+
+    @Override
+    public double logCdf(double t) {
+        if (Double.isNaN(t)) {
+            return Double.NaN;
+        }
+        return (t > 0.0) ? Math.log1p(-upperTail(t)) : logUpperTail(-t);
+    }
+
+    @Override
+    public double survival(double t) {
+        return cdf(-t);
     }
 
     @Override
-    public Double cdf(Double t) {
-        return 1 - 0.5 * Functions.incompleteBeta(df / (t * t + df), 0.5 * df, 0.5);
+    public double logSurvival(double t) {
+        return logCdf(-t);
     }
 
+    /**
+     * Hill's approximation, refined by Newton's method on the tail
+     * probability. Hill's start is already good to a few digits, so one or
+     * two iterations reach full precision.
+     * <p>
+     * Source: G. W. Hill, "Algorithm 396: Student's t-Quantiles",
+     * Communications of the ACM 13(10), 1970.
+     */
     @Override
-    public Double inverseCdf(Double p) {
-        return 100 * Functions.incompleteBeta(df / (p * p + df), 0.5 * df, 0.5);
-    }
-    
-    private final Function<Double, Double> inverseCdfFun = new Function<Double, Double>() {
-        @Override
-        public Double apply(Double t) {
-            return Math.pow(1 + ((t * t) / df), -(df + 1) * 0.5);
-        }};
-    
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        if (p == 0.5) {
+            return 0.0;
+        }
+        double q = Math.min(p, 1.0 - p);
+        double t;
+        if (q == 0.0) {
+            t = Double.POSITIVE_INFINITY;
+        } else if (df == 1.0) {
+            t = 1.0 / BulkKernels.tanPi(q);
+        } else if (df == 2.0) {
+            t = (1.0 - 2.0 * q) / Math.sqrt(2.0 * q * (1.0 - q));
+        } else {
+            t = refine(hill(2.0 * q), q);
+        }
+        return (p < 0.5) ? -t : t;
+    }
+
+    /**
+     * Bailey's polar method: for (u, v) uniform on the unit disc and
+     * w = u^2 + v^2, u sqrt(df (w^(-2 / df) - 1) / w) is t distributed.
+     * <p>
+     * Source: R. W. Bailey, "Polar Generation of Random Variates with the
+     * t-Distribution", Mathematics of Computation 62(206), 1994.
+     */
+    @Override
+    public double sampleDouble() {
+        double u;
+        double w;
+        do {
+            u = 2.0 * randomGenerator.nextDouble() - 1.0;
+            double v = 2.0 * randomGenerator.nextDouble() - 1.0;
+            w = u * u + v * v;
+        } while (w >= 1.0 || w == 0.0);
+        return u * Math.sqrt(df * Math.expm1(polarExponent * Math.log(w)) / w);
+    }
+
+    // P(T > t) for t >= 0
+    private double upperTail(double t) {
+        if (t / sqrtDf > FAR_TAIL) {
+            return Math.exp(logUpperTail(t));
+        }
+        double tSquared = t * t;
+        // x = df / (df + t^2) and y = 1 - x, each computed without cancellation
+        double x = 1.0 / (1.0 + tSquared / df);
+        double y = tSquared / (df + tSquared);
+        // evaluate whichever of I_x(df / 2, 1 / 2) and its complement
+        // I_y(1 / 2, df / 2) is small, so it needs no subtraction
+        if (y > 1.5 / (0.5 * df + 2.5)) {
+            return 0.5 * Functions.regularizedIncompleteBeta(x, y, 0.5 * df, 0.5, logBeta);
+        }
+        return 0.5 - 0.5 * Functions.regularizedIncompleteBeta(y, x, 0.5, 0.5 * df, logBeta);
+    }
+
+    // log P(T > t) for t >= 0
+    private double logUpperTail(double t) {
+        double s = t / sqrtDf;
+        if (s > FAR_TAIL) {
+            // the leading term of the tail, which is exact to far more than
+            // double precision out here, where t^2 would overflow
+            return logNormalizer - df * Math.log(s) - 0.5 * Math.log(df);
+        }
+        return Math.log(upperTail(t));
+    }
+
+    // the upper t quantile of the two tailed probability p2
+    private double hill(double p2) {
+        double n = df;
+        double a = 1.0 / (n - 0.5);
+        double b = 48.0 / (a * a);
+        double c = ((20700.0 * a / b - 98.0) * a - 16.0) * a + 96.36;
+        double d = ((94.5 / (b + c) - 3.0) / b + 1.0) * Math.sqrt(a * Math.PI / 2.0) * n;
+        double x = d * p2;
+        double y = Math.pow(x, 2.0 / n);
+        if (y < 1e-100) {
+            // the leading term of the far tail branch below, which would
+            // overflow
+            return Math.sqrt(n) * Math.exp(-Math.log(x) / n);
+        }
+        if (y > 0.05 + a) {
+            // asymptotic inverse expansion about the normal quantile
+            x = Functions.inverseNormalCdf(0.5 * p2);
+            y = x * x;
+            if (n < 5.0) {
+                c += 0.3 * (n - 4.5) * (x + 0.6);
+            }
+            c = (((0.05 * d * x - 5.0) * x - 7.0) * x - 2.0) * x + b + c;
+            y = (((((0.4 * y + 6.3) * y + 36.0) * y + 94.5) / c - y - 3.0) / b + 1.0) * x;
+            y = Math.expm1(a * y * y);
+        } else {
+            // the far tail, where the quantile grows like p2^(-1 / n)
+            y = ((1.0 / (((n + 6.0) / (n * y) - 0.089 * d - 0.822) * (n + 2.0) * 3.0)
+                  + 0.5 / (n + 4.0)) * y - 1.0) * (n + 1.0) / (n + 2.0) + 1.0 / y;
+        }
+        return Math.sqrt(n * y);
+    }
+
+    // solves P(T > t) = q, working with log t against the log tail, which
+    // is close to linear far out where the tail falls like t^(-df)
+    private double refine(double t, double q) {
+        double logQ = Math.log(q);
+        for (int i = 0; i < 16; i++) {
+            double logTail = logUpperTail(t);
+            // the density underflows long before the tail does
+            double step = (logTail - logQ) * Math.exp(logTail - Math.log(t) - logPdf(t));
+            if (Double.isNaN(step) || Double.isInfinite(step)) {
+                return t;
+            }
+            t *= Math.exp(step);
+            if (Math.abs(step) < 1e-14) {
+                break;
+            }
+        }
+        return t;
+    }
+
+    // log(1 + s^2), without overflow
+    private static double logOnePlusSquare(double s) {
+        s = Math.abs(s);
+        return (s < 1e100) ? Math.log1p(s * s) : 2.0 * Math.log(s);
+    }
+
+    // log B(x, 1 / 2), using the asymptotic expansion of
+    // log Gamma(x + 1 / 2) - log Gamma(x) once the difference of the two
+    // logGamma calls would lose precision
+    private static double logBetaHalf(double x) {
+        if (x < 20.0) {
+            return Functions.logBeta(x, 0.5);
+        }
+        double r = 1.0 / (x * x);
+        double ratio = 0.5 * Math.log(x)
+                       - (1.0 / 8.0 - r * (1.0 / 192.0 - r * (1.0 / 640.0 - r * 17.0 / 14336.0))) / x;
+        return 0.5 * Math.log(Math.PI) - ratio;
+    }
+
     public static void main(String[] args) {
-        Distribution<Double> t = new StudentT(3);
+        Distribution<Double> distribution = new StudentT(5);
+        List<Double> samples = distribution.sample(1000000);
+        DescriptiveStatistics stats = new DescriptiveStatistics(samples);
+        System.out.println("True mean: " + distribution.mean());
+        System.out.println("True variance: " + distribution.variance());
+        System.out.println("Sample mean: " + stats.mean());
+        System.out.println("Sample variance: " + stats.variance());
+        for (int i = 0; i < 30; i++) {
+            System.out.print("_");
+        }
+        System.out.println();
+        Histogram<Double> histogram = new Histogram<>(stats, 20);
+        histogram.print();
     }
 }
@@ -6,7 +6,7 @@ import lock14.random.stats.Histogram;
 import java.util.List;
 import java.util.Random;
 
-public class Uniform extends AbstractDistribution<Double> {
+public class Uniform extends AbstractDoubleDistribution {
     private static final String errFormat = "Invalid interval, (a=%.2f, b=%.2f). Must have a < b";
     private final double a;
     private final double b;
@@ -28,6 +28,11 @@ public class Uniform extends AbstractDistribution<Double> {
         this.a = a;
     }
     
+    @Override
+    public ParameterKey parameterKey() {
+        return ParameterKey.of(Uniform.class, a, b);
+    }
+
     @Override
     public Double mean() {
         return (a + b) / 2;
@@ -39,22 +44,79 @@ public class Uniform extends AbstractDistribution<Double> {
     }
     
     @Override
-    public Double pdf(Double x) {
+    public double pdf(double x) {
         return (x < a || x > b)? 0.0 : 1 / (b - a);
     }
     
     @Override
-    public Double cdf(Double x) {
+    public double logPdf(double x) {
+        return (x < a || x > b)? Double.NEGATIVE_INFINITY : -Math.log(b - a);
+    }
+
+    @Override
+    public double cdf(double x) {
         return (x < a)? 0.0 : (x > b)? 1.0 : (x - a) / (b - a);
     }
+
+    @Override
+    public double survival(double x) {
+        return (x < a)? 1.0 : (x > b)? 0.0 : (b - x) / (b - a);
+    }
     
     @Override
-    public Double inverseCdf(Double p) {
-        if (p == null || p < 0.0 || p > 1.0) {
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
             throw new IllegalArgumentException("Invalid probability: p = " + p);
         }
         return (b - a) * p  + a;
     }
+
+    @Override
+    public void pdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double density = 1 / (b - a);
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v < a || v > b)? 0.0 : density;
+        }
+    }
+
+    @Override
+    public void logPdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double logDensity = -Math.log(b - a);
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v < a || v > b)? Double.NEGATIVE_INFINITY : logDensity;
+        }
+    }
+
+    @Override
+    public void cdf(double[] x, int xOff, double[] out, int outOff, int len) {
+        double inverseWidth = 1 / (b - a);
+        for (int i = 0; i < len; i++) {
+            double v = x[xOff + i];
+            out[outOff + i] = (v < a)? 0.0 : (v > b)? 1.0 : (v - a) * inverseWidth;
+        }
+    }
+
+    @Override
+    public void inverseCdf(double[] p, int pOff, double[] out, int outOff, int len) {
+        double width = b - a;
+        for (int i = 0; i < len; i++) {
+            double q = p[pOff + i];
+            if (q < 0.0 || q > 1.0) {
+                throw new IllegalArgumentException("Invalid probability: p = " + q);
+            }
+            out[outOff + i] = width * q + a;
+        }
+    }
+
+    @Override
+    public void fill(double[] dst, int off, int len) {
+        double width = b - a;
+        for (int i = off; i < off + len; i++) {
+            dst[i] = width * randomGenerator.nextDouble() + a;
+        }
+    }
     
     public static void main(String[] args) {
         Distribution<Double> distribution = new Uniform();
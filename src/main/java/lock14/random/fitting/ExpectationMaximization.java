@@ -0,0 +1,228 @@
+package lock14.random.fitting;
+
+import lock14.random.distribution.Distribution;
+import lock14.random.distribution.Gaussian;
+import lock14.random.distribution.Mixture;
+import lock14.random.util.ForkJoinChunks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Fits finite mixtures by the expectation maximization algorithm of
+ * Dempster, Laird and Rubin.
+ * <p>
+ * The E-step is a pass over the sample computing each point's
+ * responsibilities, the posterior probabilities of the components, and is
+ * split into fixed size chunks run on a fork-join pool. The
+ * responsibilities are never stored: each chunk reduces them straight away
+ * to the weighted sums the M-step needs, and the chunks' sums are added in
+ * a fixed order, so the fit is the same whatever the parallelism.
+ * <p>
+ * Source: A. P. Dempster, N. M. Laird and D. B. Rubin, "Maximum Likelihood
+ * from Incomplete Data via the EM Algorithm", Journal of the Royal
+ * Statistical Society B 39(1), 1977.
+ */
+public class ExpectationMaximization {
+    public static final int DEFAULT_MAX_ITERATIONS = 500;
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+    private static final double HALF_LN_TWO_PI = 0.5 * Math.log(2 * Math.PI);
+    // the relative change in log likelihood at which the iteration stops
+    private static final double TOLERANCE = 1e-10;
+    // component variances are kept above this fraction of the sample
+    // variance, as the likelihood is unbounded when a component collapses
+    // onto a single point
+    private static final double MIN_VARIANCE_FRACTION = 1e-6;
+
+    private final Supplier<? extends Random> generators;
+    private final int maxIterations;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    public ExpectationMaximization() {
+        this(Random::new, DEFAULT_MAX_ITERATIONS);
+    }
+
+    public ExpectationMaximization(Supplier<? extends Random> generators) {
+        this(generators, DEFAULT_MAX_ITERATIONS);
+    }
+
+    public ExpectationMaximization(Supplier<? extends Random> generators, int maxIterations) {
+        this(generators, maxIterations, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public ExpectationMaximization(Supplier<? extends Random> generators, int maxIterations, int chunkSize,
+                                   ForkJoinPool pool) {
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("Iteration limit must be positive: " + maxIterations);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.generators = generators;
+        this.maxIterations = maxIterations;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Fits a mixture of {@code components} Gaussians. The iteration starts
+     * from the sample cut at its quantiles into equal parts, one per
+     * component, and stops once the log likelihood changes by less than a
+     * relative 1e-10. The fitted components are ordered by their means and
+     * share one generator.
+     * <p>
+     * The parameters of the result are, for each component in turn, its
+     * weight, mean and standard deviation.
+     */
+    public FitResult<Mixture> gaussianMixture(double[] samples, int components) {
+        int n = samples.length;
+        if (components <= 0) {
+            throw new IllegalArgumentException("Component count must be positive: " + components);
+        }
+        if (n < 2 * components) {
+            throw new IllegalArgumentException("Need at least " + 2 * components + " samples, got " + n);
+        }
+        double totalVariance = SufficientStatistics.of(samples).populationVariance();
+        if (!(totalVariance > 0.0)) {
+            throw new IllegalArgumentException("The sample has no spread");
+        }
+        double minVariance = MIN_VARIANCE_FRACTION * totalVariance;
+
+        double[] weights = new double[components];
+        double[] means = new double[components];
+        double[] variances = new double[components];
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        for (int j = 0; j < components; j++) {
+            int from = (int) ((long) j * n / components);
+            int to = (int) ((long) (j + 1) * n / components);
+            SufficientStatistics part = new SufficientStatistics();
+            part.addAll(sorted, from, to - from);
+            weights[j] = 1.0 / components;
+            means[j] = part.mean();
+            variances[j] = Math.max(part.populationVariance(), minVariance);
+        }
+
+        double logLikelihood;
+        double previous = Double.NEGATIVE_INFINITY;
+        int iterations = 0;
+        boolean converged;
+        while (true) {
+            double[] totals = expectation(samples, weights, means, variances);
+            logLikelihood = totals[3 * components];
+            converged = Math.abs(logLikelihood - previous) <= TOLERANCE * Math.abs(logLikelihood);
+            if (converged || iterations == maxIterations) {
+                break;
+            }
+            iterations++;
+            for (int j = 0; j < components; j++) {
+                double mass = totals[3 * j];
+                weights[j] = mass / n;
+                if (mass > 0.0) {
+                    // the sums are of deviations from the previous mean
+                    double shift = totals[3 * j + 1] / mass;
+                    means[j] += shift;
+                    variances[j] = Math.max(totals[3 * j + 2] / mass - shift * shift, minVariance);
+                }
+            }
+            previous = logLikelihood;
+        }
+
+        Integer[] order = new Integer[components];
+        for (int j = 0; j < components; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (i, j) -> Double.compare(means[i], means[j]));
+        Random random = generators.get();
+        double[] mixtureWeights = new double[components];
+        List<Distribution<Double>> gaussians = new ArrayList<>(components);
+        double[] parameters = new double[3 * components];
+        for (int j = 0; j < components; j++) {
+            int i = order[j];
+            double sigma = Math.sqrt(variances[i]);
+            mixtureWeights[j] = weights[i];
+            gaussians.add(new Gaussian(means[i], sigma, random));
+            parameters[3 * j] = weights[i];
+            parameters[3 * j + 1] = means[i];
+            parameters[3 * j + 2] = sigma;
+        }
+        return new FitResult<>(new Mixture(mixtureWeights, gaussians, random), parameters, logLikelihood, n,
+                               iterations, converged);
+    }
+
+    // for each component j, the sum of the responsibilities r and the sums
+    // of r (x - mean) and r (x - mean)^2 at indices 3j to 3j + 2, then the
+    // log likelihood
+    private double[] expectation(double[] samples, double[] weights, double[] means, double[] variances) {
+        int k = weights.length;
+        double[] inverseSigmas = new double[k];
+        double[] logNormalizers = new double[k];
+        for (int j = 0; j < k; j++) {
+            inverseSigmas[j] = 1.0 / Math.sqrt(variances[j]);
+            logNormalizers[j] = Math.log(weights[j]) - 0.5 * Math.log(variances[j]) - HALF_LN_TWO_PI;
+        }
+        EStep step = new EStep(samples, means, inverseSigmas, logNormalizers);
+        return ForkJoinChunks.reduce(pool, ForkJoinChunks.count(samples.length, chunkSize), step::chunk,
+                                     ExpectationMaximization::add);
+    }
+
+    private static double[] add(double[] totals, double[] more) {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] += more[i];
+        }
+        return totals;
+    }
+
+    private class EStep {
+        private final double[] samples;
+        private final double[] means;
+        private final double[] inverseSigmas;
+        private final double[] logNormalizers;
+
+        EStep(double[] samples, double[] means, double[] inverseSigmas, double[] logNormalizers) {
+            this.samples = samples;
+            this.means = means;
+            this.inverseSigmas = inverseSigmas;
+            this.logNormalizers = logNormalizers;
+        }
+
+        double[] chunk(int chunk) {
+            int k = means.length;
+            double[] totals = new double[3 * k + 1];
+            double[] terms = new double[k];
+            int from = chunk * chunkSize;
+            int to = Math.min(samples.length, from + chunkSize);
+            double logLikelihood = 0.0;
+            for (int i = from; i < to; i++) {
+                double x = samples[i];
+                double max = Double.NEGATIVE_INFINITY;
+                for (int j = 0; j < k; j++) {
+                    double z = (x - means[j]) * inverseSigmas[j];
+                    terms[j] = logNormalizers[j] - 0.5 * z * z;
+                    max = Math.max(max, terms[j]);
+                }
+                double sum = 0.0;
+                for (int j = 0; j < k; j++) {
+                    terms[j] = Math.exp(terms[j] - max);
+                    sum += terms[j];
+                }
+                logLikelihood += max + Math.log(sum);
+                double inverseSum = 1.0 / sum;
+                for (int j = 0; j < k; j++) {
+                    double r = terms[j] * inverseSum;
+                    double deviation = x - means[j];
+                    totals[3 * j] += r;
+                    totals[3 * j + 1] += r * deviation;
+                    totals[3 * j + 2] += r * deviation * deviation;
+                }
+            }
+            totals[3 * k] = logLikelihood;
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package lock14.random.fitting;
+
+import lock14.random.distribution.Distribution;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of a maximum likelihood fit: the fitted distribution and its
+ * parameters, the log likelihood of the sample under it, and how many
+ * iterations the estimate took, zero for the closed forms.
+ */
+public final class FitResult<D extends Distribution<?>> {
+    private final D distribution;
+    private final double[] parameters;
+    private final double logLikelihood;
+    private final long sampleSize;
+    private final int iterations;
+    private final boolean converged;
+
+    FitResult(D distribution, double[] parameters, double logLikelihood, long sampleSize,
+              int iterations, boolean converged) {
+        this.distribution = distribution;
+        this.parameters = parameters;
+        this.logLikelihood = logLikelihood;
+        this.sampleSize = sampleSize;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    public D getDistribution() {
+        return distribution;
+    }
+
+    /**
+     * The estimated parameters, in the order the distribution's constructor
+     * takes them, or for a mixture as listed by the method that fitted it.
+     */
+    public double[] getParameters() {
+        return parameters.clone();
+    }
+
+    public double getLogLikelihood() {
+        return logLikelihood;
+    }
+
+    public long getSampleSize() {
+        return sampleSize;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns false if the iteration limit was reached before the estimate
+     * settled, or, for the t distribution, if the degrees of freedom ran
+     * into the bound of the search.
+     */
+    public boolean hasConverged() {
+        return converged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s%s, log likelihood %s (n = %d, %d iterations%s)",
+                             distribution.getClass().getSimpleName(), Arrays.toString(parameters),
+                             logLikelihood, sampleSize, iterations, converged ? "" : ", not converged");
+    }
+}
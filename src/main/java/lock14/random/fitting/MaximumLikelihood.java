@@ -0,0 +1,301 @@
+package lock14.random.fitting;
+
+import lock14.random.distribution.Beta;
+import lock14.random.distribution.Distribution;
+import lock14.random.distribution.Exponential;
+import lock14.random.distribution.Gamma;
+import lock14.random.distribution.Gaussian;
+import lock14.random.distribution.Geometric;
+import lock14.random.distribution.StudentT;
+import lock14.random.distribution.Uniform;
+import lock14.random.numerical.Functions;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Maximum likelihood estimates for the built-in distributions.
+ * <p>
+ * The Gaussian, exponential, geometric and uniform estimates are closed
+ * forms in the {@link SufficientStatistics}. Gamma and beta are exponential
+ * families too, so their estimates also depend on the data only through
+ * the accumulated statistics, but they have to be found by Newton's method
+ * from a moment estimate. The t distribution is not an exponential family,
+ * so its fit makes a pass over the sample per iteration.
+ * <p>
+ * Each fitted distribution gets its own generator from the supplier given
+ * to the constructor, by default a new {@link Random}.
+ */
+public class MaximumLikelihood {
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+    /** The search range for the t distribution's degrees of freedom. */
+    public static final double MIN_DEGREES_OF_FREEDOM = 1e-2;
+    public static final double MAX_DEGREES_OF_FREEDOM = 1e6;
+    private static final double HALF_LN_TWO_PI = 0.5 * Math.log(2 * Math.PI);
+    private static final double TOLERANCE = 1e-12;
+
+    private final Supplier<? extends Random> generators;
+    private final int maxIterations;
+
+    public MaximumLikelihood() {
+        this(Random::new, DEFAULT_MAX_ITERATIONS);
+    }
+
+    public MaximumLikelihood(Supplier<? extends Random> generators) {
+        this(generators, DEFAULT_MAX_ITERATIONS);
+    }
+
+    public MaximumLikelihood(Supplier<? extends Random> generators, int maxIterations) {
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("Iteration limit must be positive: " + maxIterations);
+        }
+        this.generators = generators;
+        this.maxIterations = maxIterations;
+    }
+
+    public FitResult<Gaussian> gaussian(double[] samples) {
+        return gaussian(SufficientStatistics.of(samples));
+    }
+
+    public FitResult<Gaussian> gaussian(SufficientStatistics statistics) {
+        long n = requireSamples(statistics, 2);
+        double variance = statistics.populationVariance();
+        if (!(variance > 0.0)) {
+            throw new IllegalArgumentException("The sample has no spread");
+        }
+        double logLikelihood = -n * (HALF_LN_TWO_PI + 0.5 * Math.log(variance) + 0.5);
+        double mu = statistics.mean();
+        double sigma = Math.sqrt(variance);
+        return closedForm(new Gaussian(mu, sigma, generators.get()), logLikelihood, n, mu, sigma);
+    }
+
+    public FitResult<Exponential> exponential(double[] samples) {
+        return exponential(SufficientStatistics.of(samples));
+    }
+
+    public FitResult<Exponential> exponential(SufficientStatistics statistics) {
+        long n = requireSamples(statistics, 1);
+        if (statistics.min() < 0.0 || !(statistics.mean() > 0.0)) {
+            throw new IllegalArgumentException("Exponential samples must be non-negative and not all zero");
+        }
+        double lambda = 1.0 / statistics.mean();
+        return closedForm(new Exponential(lambda, generators.get()), n * (Math.log(lambda) - 1.0), n,
+                          lambda);
+    }
+
+    public FitResult<Geometric> geometric(int[] samples) {
+        return geometric(SufficientStatistics.of(samples));
+    }
+
+    /**
+     * Fits the geometric distribution on 1, 2, ..., the number of trials up
+     * to and including the first success.
+     */
+    public FitResult<Geometric> geometric(SufficientStatistics statistics) {
+        long n = requireSamples(statistics, 1);
+        if (statistics.min() < 1.0) {
+            throw new IllegalArgumentException("Geometric samples must be at least 1");
+        }
+        double mean = statistics.mean();
+        double p = 1.0 / mean;
+        // all ones is the degenerate p = 1, where the second term is 0 * -inf
+        double logLikelihood = n * (Math.log(p) + ((mean > 1.0) ? (mean - 1.0) * Math.log1p(-p) : 0.0));
+        return closedForm(new Geometric(p, generators.get()), logLikelihood, n, p);
+    }
+
+    public FitResult<Uniform> uniform(double[] samples) {
+        return uniform(SufficientStatistics.of(samples));
+    }
+
+    public FitResult<Uniform> uniform(SufficientStatistics statistics) {
+        long n = requireSamples(statistics, 2);
+        double a = statistics.min();
+        double b = statistics.max();
+        return closedForm(new Uniform(a, b, generators.get()), -n * Math.log(b - a), n, a, b);
+    }
+
+    public FitResult<Gamma> gamma(double[] samples) {
+        return gamma(SufficientStatistics.of(samples));
+    }
+
+    /**
+     * The shape k solves log k - digamma(k) = log(mean) - mean(log x), which
+     * Newton's method does in a few iterations from Minka's approximation.
+     * The rate is then k / mean.
+     * <p>
+     * Source: T. P. Minka, "Estimating a Gamma Distribution", 2002.
+     */
+    public FitResult<Gamma> gamma(SufficientStatistics statistics) {
+        long n = requireSamples(statistics, 2);
+        if (!(statistics.min() > 0.0)) {
+            throw new IllegalArgumentException("Gamma samples must be positive");
+        }
+        double mean = statistics.mean();
+        double meanLog = statistics.meanLog();
+        double s = Math.log(mean) - meanLog;
+        if (!(s > 0.0)) {
+            throw new IllegalArgumentException("The sample has no spread");
+        }
+        double shape = (3.0 - s + Math.sqrt((s - 3.0) * (s - 3.0) + 24.0 * s)) / (12.0 * s);
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            iterations++;
+            double f = Math.log(shape) - Functions.digamma(shape) - s;
+            double slope = 1.0 / shape - Functions.trigamma(shape);
+            double next = shape - f / slope;
+            // log k - digamma(k) is convex and decreasing, so every step
+            // lands below the root and the iterates then climb to it
+            // monotonically; only a first step from above can overshoot zero
+            next = (next > 0.0) ? next : 0.5 * shape;
+            converged = Math.abs(next - shape) <= TOLERANCE * next;
+            shape = next;
+        }
+        double rate = shape / mean;
+        double logLikelihood = n * (shape * Math.log(rate) - Functions.logGamma(shape)
+                                    + (shape - 1.0) * meanLog - shape);
+        return new FitResult<>(new Gamma(shape, rate, generators.get()), new double[] {shape, rate},
+                               logLikelihood, n, iterations, converged);
+    }
+
+    public FitResult<Beta> beta(double[] samples) {
+        return beta(SufficientStatistics.of(samples));
+    }
+
+    /**
+     * Solves digamma(a) - digamma(a + b) = mean(log x) and
+     * digamma(b) - digamma(a + b) = mean(log(1 - x)) by Newton's method from
+     * the method of moments estimate. The log likelihood is concave in
+     * (a, b), so a step is only ever shortened to keep both positive.
+     */
+    public FitResult<Beta> beta(SufficientStatistics statistics) {
+        long n = requireSamples(statistics, 2);
+        if (!(statistics.min() > 0.0 && statistics.max() < 1.0)) {
+            throw new IllegalArgumentException("Beta samples must lie strictly between 0 and 1");
+        }
+        double meanLog = statistics.meanLog();
+        double meanLogComplement = statistics.meanLogComplement();
+        double mean = statistics.mean();
+        double variance = statistics.populationVariance();
+        if (!(variance > 0.0)) {
+            throw new IllegalArgumentException("The sample has no spread");
+        }
+        double common = mean * (1.0 - mean) / variance - 1.0;
+        double a = (common > 0.0) ? mean * common : 1.0;
+        double b = (common > 0.0) ? (1.0 - mean) * common : 1.0;
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            iterations++;
+            double digammaSum = Functions.digamma(a + b);
+            double g1 = Functions.digamma(a) - digammaSum - meanLog;
+            double g2 = Functions.digamma(b) - digammaSum - meanLogComplement;
+            double trigammaSum = Functions.trigamma(a + b);
+            double j11 = Functions.trigamma(a) - trigammaSum;
+            double j22 = Functions.trigamma(b) - trigammaSum;
+            double j12 = -trigammaSum;
+            double determinant = j11 * j22 - j12 * j12;
+            double stepA = (j22 * g1 - j12 * g2) / determinant;
+            double stepB = (j11 * g2 - j12 * g1) / determinant;
+            double scale = 1.0;
+            while (a - scale * stepA <= 0.0 || b - scale * stepB <= 0.0) {
+                scale *= 0.5;
+            }
+            double nextA = a - scale * stepA;
+            double nextB = b - scale * stepB;
+            converged = Math.abs(nextA - a) <= TOLERANCE * nextA && Math.abs(nextB - b) <= TOLERANCE * nextB;
+            a = nextA;
+            b = nextB;
+        }
+        double logLikelihood = n * ((a - 1.0) * meanLog + (b - 1.0) * meanLogComplement
+                                    - Functions.logBeta(a, b));
+        return new FitResult<>(new Beta(a, b, generators.get()), new double[] {a, b}, logLikelihood, n,
+                               iterations, converged);
+    }
+
+    /**
+     * Fits the degrees of freedom of the standard t distribution, which has
+     * no location or scale, so the samples should already be standardized.
+     * The score is solved by Newton's method from the moment estimate
+     * 2 v / (v - 1), v the mean square, falling back to bisection on log df
+     * whenever a step would leave the bracket. The estimate is confined to
+     * [{@link #MIN_DEGREES_OF_FREEDOM}, {@link #MAX_DEGREES_OF_FREEDOM}];
+     * samples with tails as light as a normal's end at the upper bound,
+     * which is reported as not converged.
+     */
+    public FitResult<StudentT> studentT(double[] samples) {
+        int n = samples.length;
+        if (n < 2) {
+            throw new IllegalArgumentException("Need at least 2 samples, got " + n);
+        }
+        double meanSquare = 0.0;
+        for (double x : samples) {
+            meanSquare += x * x;
+        }
+        meanSquare /= n;
+        double lower = MIN_DEGREES_OF_FREEDOM;
+        double upper = MAX_DEGREES_OF_FREEDOM;
+        double df = (meanSquare > 1.0) ? 2.0 * meanSquare / (meanSquare - 1.0) : upper;
+        df = Math.min(upper, Math.max(lower, df));
+        double[] derivatives = new double[2];
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            iterations++;
+            tScore(samples, df, derivatives);
+            double score = derivatives[0];
+            if (score > 0.0) {
+                lower = df;
+            } else {
+                upper = df;
+            }
+            double next = df - score / derivatives[1];
+            if (!(derivatives[1] < 0.0 && next > lower && next < upper)) {
+                next = Math.sqrt(lower * upper);
+            }
+            converged = Math.abs(next - df) <= TOLERANCE * next || upper <= lower * (1.0 + TOLERANCE);
+            df = next;
+        }
+        if (df >= MAX_DEGREES_OF_FREEDOM * (1.0 - 1e-6) || df <= MIN_DEGREES_OF_FREEDOM * (1.0 + 1e-6)) {
+            converged = false;
+        }
+        StudentT fitted = new StudentT(df, generators.get());
+        double logLikelihood = 0.0;
+        for (double x : samples) {
+            logLikelihood += fitted.logPdf(x);
+        }
+        return new FitResult<>(fitted, new double[] {df}, logLikelihood, n, iterations, converged);
+    }
+
+    // the first and second derivatives of the t log likelihood in df
+    private static void tScore(double[] samples, double df, double[] derivatives) {
+        double first = 0.0;
+        double second = 0.0;
+        for (double x : samples) {
+            double r = x * x;
+            double denominator = df * (df + r);
+            first += -0.5 * Math.log1p(r / df) + 0.5 * (df + 1.0) * r / denominator;
+            second += r / denominator - 0.5 * (df + 1.0) * r * (2.0 * df + r) / (denominator * denominator);
+        }
+        int n = samples.length;
+        first += n * (0.5 * (Functions.digamma(0.5 * (df + 1.0)) - Functions.digamma(0.5 * df)) - 0.5 / df);
+        second += n * (0.25 * (Functions.trigamma(0.5 * (df + 1.0)) - Functions.trigamma(0.5 * df))
+                       + 0.5 / (df * df));
+        derivatives[0] = first;
+        derivatives[1] = second;
+    }
+
+    private static long requireSamples(SufficientStatistics statistics, int minimum) {
+        long n = statistics.count();
+        if (n < minimum) {
+            throw new IllegalArgumentException("Need at least " + minimum + " samples, got " + n);
+        }
+        return n;
+    }
+
+    private static <D extends Distribution<?>> FitResult<D> closedForm(D distribution,
+                                                                      double logLikelihood, long n,
+                                                                      double... parameters) {
+        return new FitResult<>(distribution, parameters, logLikelihood, n, 0, true);
+    }
+}
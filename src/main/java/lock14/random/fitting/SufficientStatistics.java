@@ -0,0 +1,127 @@
+package lock14.random.fitting;
+
+/**
+ * A single pass accumulator of the statistics the maximum likelihood
+ * estimates of the built-in distributions depend on: the count, mean and sum
+ * of squared deviations (by Welford's update), the extremes, and the means
+ * of log x and log(1 - x). Nothing is sorted or stored, so a sample of any
+ * size costs a constant amount of memory, and accumulators filled in
+ * parallel can be combined.
+ * <p>
+ * The log statistics are only defined while every sample lies in their
+ * domain; once one does not, they read as NaN.
+ */
+public class SufficientStatistics {
+    private long count;
+    private double mean;
+    private double sumSquaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sumLog;
+    private double sumLogComplement;
+
+    public static SufficientStatistics of(double[] samples) {
+        SufficientStatistics statistics = new SufficientStatistics();
+        statistics.addAll(samples, 0, samples.length);
+        return statistics;
+    }
+
+    public static SufficientStatistics of(int[] samples) {
+        SufficientStatistics statistics = new SufficientStatistics();
+        for (int x : samples) {
+            statistics.add(x);
+        }
+        return statistics;
+    }
+
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        sumSquaredDeviations += delta * (x - mean);
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+        sumLog += (x > 0.0) ? Math.log(x) : Double.NaN;
+        sumLogComplement += (x < 1.0) ? Math.log1p(-x) : Double.NaN;
+    }
+
+    public void addAll(double[] samples, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            add(samples[i]);
+        }
+    }
+
+    /**
+     * Adds the samples accumulated by {@code other} to these, as if they had
+     * all been added here. See Chan, Golub and LeVeque, "Algorithms for
+     * Computing the Sample Variance", The American Statistician 37(3), 1983.
+     */
+    public void combine(SufficientStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        sumSquaredDeviations += other.sumSquaredDeviations + delta * delta * count / total * other.count;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sumLog += other.sumLog;
+        sumLogComplement += other.sumLogComplement;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double sum() {
+        return mean * count;
+    }
+
+    public double mean() {
+        return (count == 0) ? Double.NaN : mean;
+    }
+
+    /**
+     * The unbiased sample variance, dividing by n - 1.
+     */
+    public double variance() {
+        return sumSquaredDeviations / (count - 1);
+    }
+
+    /**
+     * The maximum likelihood variance, dividing by n.
+     */
+    public double populationVariance() {
+        return sumSquaredDeviations / count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /**
+     * The mean of log x, NaN unless every sample is positive.
+     */
+    public double meanLog() {
+        return sumLog / count;
+    }
+
+    /**
+     * The mean of log(1 - x), NaN unless every sample is below one.
+     */
+    public double meanLogComplement() {
+        return sumLogComplement / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n = %d, mean = %s, variance = %s, min = %s, max = %s",
+                             count, mean(), variance(), min, max);
+    }
+}
@@ -8,10 +8,61 @@ package lock14.random.numerical;
  */
 public class Functions {
     private static final double SQRT_2PI = Math.sqrt(2 * Math.PI);
+    private static final double SQRT_HALF = Math.sqrt(0.5);
+    private static final double LN_2 = Math.log(2.0);
     private static final double[] coefficients = {76.18009172947146,
                                                   -86.50532032941677, 24.01409824083091, -1.231739572450155,
                                                   0.1208650973866179e-2, -0.5395239384953e-5};
 
+    // rational approximations for erf and erfc, from Cephes ndtr.c
+    private static final double[] ERFC_P = {2.46196981473530512524E-10, 5.64189564831068821977E-1,
+                                            7.46321056442269912687E0, 4.86371970985681366614E1,
+                                            1.96520832956077098242E2, 5.26445194995477358631E2,
+                                            9.34528527171957607540E2, 1.02755188689515710272E3,
+                                            5.57535335369399327526E2};
+    private static final double[] ERFC_Q = {1.0, 1.32281951154744992508E1, 8.67072140885989742329E1,
+                                            3.54937778887819891062E2, 9.75708501743205489753E2,
+                                            1.82390916687909736289E3, 2.24633760818710981792E3,
+                                            1.65666309194161350182E3, 5.57535340817727675546E2};
+    private static final double[] ERFC_R = {5.64189583547755073984E-1, 1.27536670759978104416E0,
+                                            5.01905042251180477414E0, 6.16021097993053585195E0,
+                                            7.40974269950448939160E0, 2.97886665372100240670E0};
+    private static final double[] ERFC_S = {1.0, 2.26052863220117276590E0, 9.39603524938001434673E0,
+                                            1.20489539808096656605E1, 1.70814450747565897222E1,
+                                            9.60896809063285878198E0, 3.36907645100081516050E0};
+    private static final double[] ERF_T = {9.60497373987051638749E0, 9.00260197203842689217E1,
+                                           2.23200534594684319226E3, 7.00332514112805075473E3,
+                                           5.55923013010394962768E4};
+    private static final double[] ERF_U = {1.0, 3.35617141647503099647E1, 5.21357949780152679795E2,
+                                           4.59432382970980127987E3, 2.26290000613890934246E4,
+                                           4.92673942608635921086E4};
+
+    // Wichura's AS 241 (PPND16), lowest order coefficients last
+    private static final double[] PPND_A = {2.5090809287301226727e+3, 3.3430575583588128105e+4,
+                                            6.7265770927008700853e+4, 4.5921953931549871457e+4,
+                                            1.3731693765509461125e+4, 1.9715909503065514427e+3,
+                                            1.3314166789178437745e+2, 3.3871328727963666080e0};
+    private static final double[] PPND_B = {5.2264952788528545610e+3, 2.8729085735721942674e+4,
+                                            3.9307895800092710610e+4, 2.1213794301586595867e+4,
+                                            5.3941960214247511077e+3, 6.8718700749205790830e+2,
+                                            4.2313330701600911252e+1, 1.0};
+    private static final double[] PPND_C = {7.74545014278341407640e-4, 2.27238449892691845833e-2,
+                                            2.41780725177450611770e-1, 1.27045825245236838258e0,
+                                            3.64784832476320460504e0, 5.76949722146069140550e0,
+                                            4.63033784615654529590e0, 1.42343711074968357734e0};
+    private static final double[] PPND_D = {1.05075007164441684324e-9, 5.47593808499534494600e-4,
+                                            1.51986665636164571966e-2, 1.48103976427480074590e-1,
+                                            6.89767334985100004550e-1, 1.67638483018380384940e0,
+                                            2.05319162663775882187e0, 1.0};
+    private static final double[] PPND_E = {2.01033439929228813265e-7, 2.71155556874348757815e-5,
+                                            1.24266094738807843860e-3, 2.65321895265761230930e-2,
+                                            2.96560571828504891230e-1, 1.78482653991729133580e0,
+                                            5.46378491116411436990e0, 6.65790464350110377720e0};
+    private static final double[] PPND_F = {2.04426310338993978564e-15, 1.42151175831644588870e-7,
+                                            1.84631831751005468180e-5, 7.86869131145613259100e-4,
+                                            1.48753612908506148525e-2, 1.36929880922735805310e-1,
+                                            5.99832206555887937690e-1, 1.0};
+
     public static double beta(double a, double b) {
         return Math.exp(logBeta(a, b));
     }
@@ -20,8 +71,12 @@ public class Functions {
         return logGamma(a) + logGamma(b) - logGamma(a + b);
     }
 
+    /**
+     * The regularized incomplete beta function I_x(a, b), the same as
+     * {@link #regularizedIncompleteBeta(double, double, double)}.
+     */
     public static double incompleteBeta(double x, double a, double b) {
-        return 0.0;
+        return regularizedIncompleteBeta(x, a, b);
     }
 
     public static double incompleteBeta2(double x, double a, double b) {
@@ -57,25 +112,205 @@ public class Functions {
 
     public static double inverseBeta(double p, double alpha, double beta, double A,
                                      double B) {
-        double x = 0;
-        double a = 0;
-        double b = 1;
-        double precision = Math.pow(10, -15); // converge until there is 15
-        // decimal places precision
-
-        while ((b - a) > precision) {
-            x = (a + b) / 2;
-            if (incompleteBeta3(x, alpha, beta) > p) {
-                b = x;
+        double x = inverseRegularizedIncompleteBeta(p, alpha, beta, logBeta(alpha, beta));
+        if (A < B) {
+            x = x * (B - A) + A;
+        }
+        return x;
+    }
+
+    public static double regularizedIncompleteBeta(double x, double a, double b) {
+        return regularizedIncompleteBeta(x, a, b, logBeta(a, b));
+    }
+
+    /**
+     * The regularized incomplete beta function I_x(a, b), evaluated by the
+     * modified Lentz algorithm without allocating.
+     *
+     * @param logBetaAB the precomputed value of logBeta(a, b)
+     */
+    public static double regularizedIncompleteBeta(double x, double a, double b, double logBetaAB) {
+        if (x <= 0.0) {
+            return 0.0;
+        }
+        if (x >= 1.0) {
+            return 1.0;
+        }
+        double front = Math.exp(a * Math.log(x) + b * Math.log(1.0 - x) - logBetaAB);
+        return incompleteBeta(x, a, b, front);
+    }
+
+    /**
+     * I_x(a, b) for callers that know y = 1 - x more accurately than the
+     * subtraction would give it, which matters when x is close to one and b
+     * is large.
+     *
+     * @param logBetaAB the precomputed value of logBeta(a, b)
+     */
+    public static double regularizedIncompleteBeta(double x, double y, double a, double b,
+                                                   double logBetaAB) {
+        if (x <= 0.0) {
+            return 0.0;
+        }
+        if (y <= 0.0) {
+            return 1.0;
+        }
+        double logX = (x < 0.5) ? Math.log(x) : Math.log1p(-y);
+        double logY = (y < 0.5) ? Math.log(y) : Math.log1p(-x);
+        double front = Math.exp(a * logX + b * logY - logBetaAB);
+        return (x < (a + 1) / (a + b + 2))
+               ? front * betaContinuedFraction(x, a, b) / a
+               : 1.0 - front * betaContinuedFraction(y, b, a) / b;
+    }
+
+    public static double inverseRegularizedIncompleteBeta(double p, double a, double b) {
+        return inverseRegularizedIncompleteBeta(p, a, b, logBeta(a, b));
+    }
+
+    /**
+     * Solves I_x(a, b) = p for x. The starting point follows Numerical
+     * Recipes' invbetai: a Cornish-Fisher type expansion about the normal
+     * quantile when a, b >= 1, and the leading terms of the tails otherwise.
+     * It is then refined by Newton's method on log I_x against log x, which
+     * is close to linear in both tails, and by Halley's method once within
+     * ten percent of p, safeguarded by geometric bisection on the bracket
+     * the iterates establish. Typically converges in two or three iterations.
+     *
+     * @param logBetaAB the precomputed value of logBeta(a, b)
+     */
+    public static double inverseRegularizedIncompleteBeta(double p, double a, double b,
+                                                          double logBetaAB) {
+        if (p <= 0.0) {
+            return 0.0;
+        }
+        if (p >= 1.0) {
+            return 1.0;
+        }
+        double x;
+        if (a >= 1.0 && b >= 1.0) {
+            double z = -inverseNormalCdf(p);
+            double lambda = (z * z - 3.0) / 6.0;
+            double h = 2.0 / (1.0 / (2.0 * a - 1.0) + 1.0 / (2.0 * b - 1.0));
+            double w = (z * Math.sqrt(lambda + h) / h)
+                       - (1.0 / (2.0 * b - 1.0) - 1.0 / (2.0 * a - 1.0)) * (lambda + 5.0 / 6.0 - 2.0 / (3.0 * h));
+            x = a / (a + b * Math.exp(2.0 * w));
+        } else {
+            double lowerTail = Math.exp(a * Math.log(a / (a + b))) / a;
+            double upperTail = Math.exp(b * Math.log(b / (a + b))) / b;
+            double total = lowerTail + upperTail;
+            x = (p < lowerTail / total)
+                ? Math.pow(a * total * p, 1.0 / a)
+                : 1.0 - Math.pow(b * total * (1.0 - p), 1.0 / b);
+        }
+        // solve for whichever of x and 1 - x is small, so it keeps its
+        // relative precision, using I_x(a, b) = 1 - I_(1-x)(b, a)
+        return (x <= 0.5) ? inverseIncompleteBeta(x, p, a, b, logBetaAB)
+                          : 1.0 - inverseIncompleteBeta(1.0 - x, 1.0 - p, b, a, logBetaAB);
+    }
+
+    private static double inverseIncompleteBeta(double x, double p, double a, double b,
+                                                double logBetaAB) {
+        double logP = Math.log(p);
+        double lower = Double.MIN_VALUE;
+        double upper = 1.0;
+        for (int i = 0; i < 200; i++) {
+            if (!(x > lower && x < upper)) {
+                x = bisect(lower, upper);
+            }
+            double front = Math.exp(a * Math.log(x) + b * Math.log(1.0 - x) - logBetaAB);
+            double cdf = incompleteBeta(x, a, b, front);
+            if (cdf == p) {
+                return x;
+            } else if (cdf < p) {
+                lower = x;
+            } else {
+                upper = x;
+            }
+            double density = front / (x * (1.0 - x));
+            double next;
+            boolean halley = Math.abs(cdf - p) < 0.1 * p;
+            if (halley) {
+                double newton = (cdf - p) / density;
+                next = x - newton / (1.0 - 0.5 * Math.min(1.0, newton * ((a - 1.0) / x - (b - 1.0) / (1.0 - x))));
             } else {
-                a = x;
+                // far from the root, take the Newton step for log I_x against
+                // log x, using d(log I_x) / d(log x) = x * density / I_x
+                next = x * Math.exp((logP - Math.log(cdf)) * cdf / (x * density));
+            }
+            if (!(next > lower && next < upper)) {
+                next = bisect(lower, upper);
+                halley = false;
             }
+            // Halley's method converges cubically, so once its step is this
+            // small the next one would be lost in rounding
+            if (Math.abs(next - x) <= (halley ? 1e-8 : 1e-15) * next) {
+                return next;
+            }
+            x = next;
         }
+        return x;
+    }
 
-        if ((B > 0) && (A > 0)) {
-            x = x * (B - A) + A;
+    // the midpoint of a positive bracket, taken geometrically while it spans
+    // more than a factor of two so that tiny roots are found quickly
+    private static double bisect(double lower, double upper) {
+        if (Double.isInfinite(upper)) {
+            return Math.max(2.0 * lower, 1.0);
         }
-        return x;
+        return (upper > 2.0 * lower) ? Math.sqrt(lower) * Math.sqrt(upper) : 0.5 * (lower + upper);
+    }
+
+    // I_x(a, b) given front = x^a (1 - x)^b / B(a, b)
+    private static double incompleteBeta(double x, double a, double b, double front) {
+        // the continued fraction converges quickly only below the mean
+        return (x < (a + 1) / (a + b + 2))
+               ? front * betaContinuedFraction(x, a, b) / a
+               : 1.0 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    // continued fraction for I_x(a, b), see Numerical Recipes' betacf
+    private static double betaContinuedFraction(double x, double a, double b) {
+        double tiny = 1e-300;
+        double qab = a + b;
+        double qap = a + 1.0;
+        double qam = a - 1.0;
+        double c = 1.0;
+        double d = 1.0 - qab * x / qap;
+        if (Math.abs(d) < tiny) {
+            d = tiny;
+        }
+        d = 1.0 / d;
+        double h = d;
+        for (int m = 1; m <= 10000; m++) {
+            int m2 = 2 * m;
+            double aa = m * (b - m) * x / ((qam + m2) * (a + m2));
+            d = 1.0 + aa * d;
+            if (Math.abs(d) < tiny) {
+                d = tiny;
+            }
+            c = 1.0 + aa / c;
+            if (Math.abs(c) < tiny) {
+                c = tiny;
+            }
+            d = 1.0 / d;
+            h *= d * c;
+            aa = -(a + m) * (qab + m) * x / ((a + m2) * (qap + m2));
+            d = 1.0 + aa * d;
+            if (Math.abs(d) < tiny) {
+                d = tiny;
+            }
+            c = 1.0 + aa / c;
+            if (Math.abs(c) < tiny) {
+                c = tiny;
+            }
+            d = 1.0 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1.0) < 1e-15) {
+                break;
+            }
+        }
+        return h;
     }
 
     public static double gamma(double x) {
@@ -87,6 +322,43 @@ public class Functions {
                        : (x > 0) ? logGamma(x + 1) - Math.log(x) : Double.NaN;
     }
 
+    /**
+     * The digamma function, the derivative of logGamma, for x > 0. Shifted
+     * up to x >= 10 by psi(x) = psi(x + 1) - 1 / x and then evaluated by its
+     * asymptotic series, which is accurate to about 1e-15 there.
+     */
+    public static double digamma(double x) {
+        if (!(x > 0.0)) {
+            return Double.NaN;
+        }
+        double shift = 0.0;
+        while (x < 10.0) {
+            shift -= 1.0 / x;
+            x += 1.0;
+        }
+        double r = 1.0 / (x * x);
+        double series = r * (1.0 / 12 - r * (1.0 / 120 - r * (1.0 / 252 - r * (1.0 / 240 - r * (1.0 / 132)))));
+        return shift + Math.log(x) - 0.5 / x - series;
+    }
+
+    /**
+     * The trigamma function, the derivative of digamma, for x > 0, shifted
+     * and expanded in the same way.
+     */
+    public static double trigamma(double x) {
+        if (!(x > 0.0)) {
+            return Double.NaN;
+        }
+        double shift = 0.0;
+        while (x < 10.0) {
+            shift += 1.0 / (x * x);
+            x += 1.0;
+        }
+        double r = 1.0 / (x * x);
+        double series = 1.0 / 6 - r * (1.0 / 30 - r * (1.0 / 42 - r * (1.0 / 30 - r * (5.0 / 66))));
+        return shift + (1.0 + (0.5 + series / x) / x) / x;
+    }
+
     private static double evaluateFraction(double x, double a, double b) {
         int maxIterations = 50;
         double desiredPrecision = DhbMath.getMachinePrecision();
@@ -134,10 +406,286 @@ public class Functions {
         return answer;
     }
 
+    public static double regularizedGammaP(double x, double a) {
+        return regularizedGammaP(x, a, logGamma(a));
+    }
+
+    /**
+     * The regularized lower incomplete gamma function P(a, x), evaluated by
+     * its power series below x = a + 1 and as 1 - Q(a, x) above.
+     *
+     * @param logGammaA the precomputed value of logGamma(a)
+     */
+    public static double regularizedGammaP(double x, double a, double logGammaA) {
+        if (x <= 0.0) {
+            return 0.0;
+        }
+        if (Double.isInfinite(x)) {
+            return 1.0;
+        }
+        return (x < a + 1.0) ? gammaSeries(x, a, logGammaA)
+                             : 1.0 - gammaContinuedFraction(x, a, logGammaA);
+    }
+
+    public static double regularizedGammaQ(double x, double a) {
+        return regularizedGammaQ(x, a, logGamma(a));
+    }
+
+    /**
+     * The regularized upper incomplete gamma function Q(a, x) = 1 - P(a, x),
+     * evaluated by its continued fraction above x = a + 1 so the upper tail
+     * keeps its relative precision.
+     *
+     * @param logGammaA the precomputed value of logGamma(a)
+     */
+    public static double regularizedGammaQ(double x, double a, double logGammaA) {
+        if (x <= 0.0) {
+            return 1.0;
+        }
+        if (Double.isInfinite(x)) {
+            return 0.0;
+        }
+        return (x < a + 1.0) ? 1.0 - gammaSeries(x, a, logGammaA)
+                             : gammaContinuedFraction(x, a, logGammaA);
+    }
+
+    public static double inverseRegularizedGammaP(double p, double a) {
+        return inverseRegularizedGammaP(p, a, logGamma(a));
+    }
+
+    /**
+     * Solves P(a, x) = p for x. The starting point is the Wilson-Hilferty
+     * approximation when a > 1 and the leading term of the series otherwise,
+     * as in Numerical Recipes' invgammp. It is refined the same way as
+     * {@link #inverseRegularizedIncompleteBeta(double, double, double, double)}:
+     * Newton steps on the logarithm of the relevant tail while far from the
+     * root and Halley steps once close, within a bisection bracket.
+     *
+     * @param logGammaA the precomputed value of logGamma(a)
+     */
+    public static double inverseRegularizedGammaP(double p, double a, double logGammaA) {
+        if (p <= 0.0) {
+            return 0.0;
+        }
+        if (p >= 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double x;
+        if (a > 1.0) {
+            double z = inverseNormalCdf(p);
+            double t = 1.0 - 1.0 / (9.0 * a) + z / (3.0 * Math.sqrt(a));
+            x = Math.max(1e-3, a * t * t * t);
+        } else {
+            double t = 1.0 - a * (0.253 + a * 0.12);
+            x = (p < t) ? Math.pow(p / t, 1.0 / a) : 1.0 - Math.log(1.0 - (p - t) / (1.0 - t));
+        }
+
+        // above the median work with Q so that p near 1 keeps its precision
+        boolean upperTail = p > 0.5;
+        double target = upperTail ? 1.0 - p : p;
+        double logTarget = Math.log(target);
+        double lower = Double.MIN_VALUE;
+        double upper = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 200; i++) {
+            if (!(x > lower && x < upper)) {
+                x = bisect(lower, upper);
+            }
+            double value = upperTail ? regularizedGammaQ(x, a, logGammaA)
+                                     : regularizedGammaP(x, a, logGammaA);
+            if (value == target) {
+                return x;
+            } else if ((value < target) != upperTail) {
+                lower = x;
+            } else {
+                upper = x;
+            }
+            double density = Math.exp(-x + (a - 1.0) * Math.log(x) - logGammaA);
+            double next;
+            boolean halley = Math.abs(value - target) < 0.1 * target;
+            if (halley) {
+                double newton = (value - target) / (upperTail ? -density : density);
+                next = x - newton / (1.0 - 0.5 * Math.min(1.0, newton * ((a - 1.0) / x - 1.0)));
+            } else if (upperTail) {
+                // log Q(a, x) is close to linear in x in the upper tail
+                next = x + (Math.log(value) - logTarget) * value / density;
+            } else {
+                // and log P(a, x) close to linear in log x in the lower tail
+                next = x * Math.exp((logTarget - Math.log(value)) * value / (x * density));
+            }
+            if (!(next > lower && next < upper)) {
+                next = bisect(lower, upper);
+                halley = false;
+            }
+            if (Math.abs(next - x) <= (halley ? 1e-8 : 1e-15) * next) {
+                return next;
+            }
+            x = next;
+        }
+        return x;
+    }
+
+    // P(a, x) by its series, see Numerical Recipes' gser
+    private static double gammaSeries(double x, double a, double logGammaA) {
+        double term = 1.0 / a;
+        double sum = term;
+        for (int n = 1; n <= 100000; n++) {
+            term *= x / (a + n);
+            sum += term;
+            if (Math.abs(term) < Math.abs(sum) * 1e-16) {
+                break;
+            }
+        }
+        return sum * Math.exp(-x + a * Math.log(x) - logGammaA);
+    }
+
+    // Q(a, x) by its continued fraction, see Numerical Recipes' gcf
+    private static double gammaContinuedFraction(double x, double a, double logGammaA) {
+        double tiny = 1e-300;
+        double b = x + 1.0 - a;
+        double c = 1.0 / tiny;
+        double d = 1.0 / b;
+        double h = d;
+        for (int i = 1; i <= 100000; i++) {
+            double an = -i * (i - a);
+            b += 2.0;
+            d = an * d + b;
+            if (Math.abs(d) < tiny) {
+                d = tiny;
+            }
+            c = b + an / c;
+            if (Math.abs(c) < tiny) {
+                c = tiny;
+            }
+            d = 1.0 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1.0) < 1e-15) {
+                break;
+            }
+        }
+        return h * Math.exp(-x + a * Math.log(x) - logGammaA);
+    }
+
     public static double nChooseK(int n, int k) {
         return Math.exp(logGamma(n + 1) - logGamma(k + 1) - logGamma(n - k + 1));
     }
 
+    /**
+     * The error function, accurate to within a few ulps.
+     */
+    public static double erf(double x) {
+        if (Math.abs(x) > 1.0) {
+            return 1.0 - erfc(x);
+        }
+        double z = x * x;
+        return x * polynomial(ERF_T, z) / polynomial(ERF_U, z);
+    }
+
+    /**
+     * The complementary error function, 1 - erf(x). Keeps full relative
+     * precision in the upper tail until it underflows near x = 27.
+     */
+    public static double erfc(double x) {
+        if (Double.isNaN(x)) {
+            return Double.NaN;
+        }
+        double abs = Math.abs(x);
+        if (abs < 1.0) {
+            return 1.0 - erf(x);
+        }
+        double y;
+        if (abs < 8.0) {
+            y = expMinusSquare(abs) * polynomial(ERFC_P, abs) / polynomial(ERFC_Q, abs);
+        } else if (abs < 28.0) {
+            y = expMinusSquare(abs) * polynomial(ERFC_R, abs) / polynomial(ERFC_S, abs);
+        } else {
+            // underflowed, and the polynomials would overflow further out
+            y = 0.0;
+        }
+        return (x < 0) ? 2.0 - y : y;
+    }
+
+    /**
+     * log erfc(x), which keeps its relative precision long after erfc itself
+     * underflows near x = 27.
+     */
+    public static double logErfc(double x) {
+        if (x < 1.0) {
+            return Math.log(erfc(x));
+        } else if (x > 1e8) {
+            // erfc(x) = e^(-x^2) / (x sqrt(pi)) (1 - 1 / (2 x^2) + ...), whose
+            // correction is below double precision here, where the
+            // polynomials would overflow
+            return -x * x - Math.log(x) - 0.5 * Math.log(Math.PI);
+        }
+        double ratio = (x < 8.0) ? polynomial(ERFC_P, x) / polynomial(ERFC_Q, x)
+                                 : polynomial(ERFC_R, x) / polynomial(ERFC_S, x);
+        return Math.log(ratio) - x * x;
+    }
+
+    /**
+     * The standard normal cumulative distribution function.
+     */
+    public static double normalCdf(double z) {
+        return 0.5 * erfc(-z * SQRT_HALF);
+    }
+
+    /**
+     * The log of the standard normal cumulative distribution function,
+     * accurate in both tails.
+     */
+    public static double logNormalCdf(double z) {
+        return (z < 0.0) ? logErfc(-z * SQRT_HALF) - LN_2
+                         : Math.log1p(-0.5 * erfc(z * SQRT_HALF));
+    }
+
+    /**
+     * log(1 - e^x) for x <= 0, choosing between log(-expm1(x)) and
+     * log1p(-exp(x)) so that neither cancels. See M. Maechler, "Accurately
+     * Computing log(1 - exp(-|a|))", 2012.
+     */
+    public static double logOneMinusExp(double x) {
+        return (x > -LN_2) ? Math.log(-Math.expm1(x)) : Math.log1p(-Math.exp(x));
+    }
+
+    /**
+     * The standard normal quantile function, computed with Wichura's
+     * algorithm AS 241, which is accurate to about 1e-16.
+     */
+    public static double inverseNormalCdf(double p) {
+        if (p <= 0.0 || p >= 1.0) {
+            return (p == 0.0) ? Double.NEGATIVE_INFINITY
+                              : (p == 1.0) ? Double.POSITIVE_INFINITY : Double.NaN;
+        }
+        double q = p - 0.5;
+        if (Math.abs(q) <= 0.425) {
+            double r = 0.180625 - q * q;
+            return q * polynomial(PPND_A, r) / polynomial(PPND_B, r);
+        }
+        double r = Math.sqrt(-Math.log((q < 0) ? p : 1 - p));
+        double z = (r <= 5.0)
+                   ? polynomial(PPND_C, r - 1.6) / polynomial(PPND_D, r - 1.6)
+                   : polynomial(PPND_E, r - 5.0) / polynomial(PPND_F, r - 5.0);
+        return (q < 0) ? -z : z;
+    }
+
+    // evaluates the polynomial with the given coefficients, highest order first
+    private static double polynomial(double[] coefficients, double x) {
+        double value = coefficients[0];
+        for (int i = 1; i < coefficients.length; i++) {
+            value = value * x + coefficients[i];
+        }
+        return value;
+    }
+
+    // exp(-x * x) without the rounding error of squaring x, by splitting x
+    // into a part with few significant bits and a small remainder
+    private static double expMinusSquare(double x) {
+        double high = Math.floor(x * 16 + 0.5) / 16;
+        double low = x - high;
+        return Math.exp(-high * high) * Math.exp(-low * (x + high));
+    }
+
     public static void main(String[] args) {
         System.out.println(incompleteBeta(0.5, 0.5, 0.5));
         System.out.println(incompleteBeta2(0.5, 0.5, 0.5));
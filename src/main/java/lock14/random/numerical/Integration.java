@@ -1,8 +1,30 @@
 package lock14.random.numerical;
 
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 public class Integration {
+    public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-12;
+    public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-10;
+    public static final int DEFAULT_MAX_EVALUATIONS = 15000;
+
+    // 15 point Kronrod extension of the 7 point Gauss rule, from QUADPACK's
+    // qk15. Nodes are listed for x >= 0; the odd ones are the Gauss nodes.
+    private static final double[] KRONROD_NODES = {
+        0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+        0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+        0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+        0.207784955007898467600689403773245, 0.000000000000000000000000000000000};
+    private static final double[] KRONROD_WEIGHTS = {
+        0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+        0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+        0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+        0.204432940075298892414161999234649, 0.209482141084727828012999174891714};
+    private static final double[] GAUSS_WEIGHTS = {
+        0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+        0.381830050505118944950369775488975, 0.417959183673469387755102040816327};
 
     public static Double compositeTrapezoid(Function<Double, Double> f,
                                             double a, double b, int n) {
@@ -47,15 +69,132 @@ public class Integration {
 
     public static Double gaussianQuadrature(Function<Double, Double> f,
                                             double a, double b, int n) {
-        Legendre l = new Legendre(n);
-        double[][] roots = l.getRoots();
-        double[][] coeff = l.getCoeff();
-        double approx = 0.0;
-        for (int i = 0; i < n; i++) {
-            Double x = (a + b + roots[n - 1][i] * (b - a)) / 2.0;
-            approx = approx + coeff[n - 1][i] * f.apply(x);
-        }
-        approx = approx * (b - a) / 2.0;
-        return approx;
+        return GaussLegendre.of(n).integrate(f::apply, a, b);
+    }
+
+    public static IntegrationResult adaptiveGaussKronrod(DoubleUnaryOperator f, double a, double b) {
+        return adaptiveGaussKronrod(f, a, b, DEFAULT_ABSOLUTE_TOLERANCE,
+                                    DEFAULT_RELATIVE_TOLERANCE, DEFAULT_MAX_EVALUATIONS);
+    }
+
+    /**
+     * Integrates f over [a, b] by repeatedly bisecting the subinterval with
+     * the largest error estimate, until the total estimated error is below
+     * max(absoluteTolerance, relativeTolerance * |integral|) or the next
+     * bisection would exceed maxEvaluations. Either bound may be infinite,
+     * in which case the range is mapped onto a finite one by a change of
+     * variables before integrating.
+     * <p>
+     * Each subinterval is integrated with the 15 point Gauss-Kronrod rule and
+     * its error estimated by the difference from the embedded 7 point Gauss
+     * rule, which is pessimistic for smooth integrands.
+     */
+    public static IntegrationResult adaptiveGaussKronrod(DoubleUnaryOperator f, double a, double b,
+                                                         double absoluteTolerance,
+                                                         double relativeTolerance,
+                                                         int maxEvaluations) {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            throw new IllegalArgumentException("Invalid interval, (a=" + a + ", b=" + b + ")");
+        }
+        if (a == b) {
+            return new IntegrationResult(0.0, 0.0, 0, true);
+        }
+        if (a > b) {
+            IntegrationResult result = adaptiveGaussKronrod(f, b, a, absoluteTolerance,
+                                                            relativeTolerance, maxEvaluations);
+            return new IntegrationResult(-result.getValue(), result.getErrorEstimate(),
+                                         result.getEvaluations(), result.hasConverged());
+        }
+        if (Double.isInfinite(a) && Double.isInfinite(b)) {
+            // x = t / (1 - t^2) maps (-1, 1) onto the real line
+            return adaptiveGaussKronrod(t -> {
+                double d = 1 - t * t;
+                return f.applyAsDouble(t / d) * (1 + t * t) / (d * d);
+            }, -1, 1, absoluteTolerance, relativeTolerance, maxEvaluations);
+        }
+        if (Double.isInfinite(b)) {
+            // x = a + t / (1 - t) maps [0, 1) onto [a, infinity)
+            return adaptiveGaussKronrod(t -> {
+                double d = 1 - t;
+                return f.applyAsDouble(a + t / d) / (d * d);
+            }, 0, 1, absoluteTolerance, relativeTolerance, maxEvaluations);
+        }
+        if (Double.isInfinite(a)) {
+            return adaptiveGaussKronrod(t -> {
+                double d = 1 - t;
+                return f.applyAsDouble(b - t / d) / (d * d);
+            }, 0, 1, absoluteTolerance, relativeTolerance, maxEvaluations);
+        }
+
+        PriorityQueue<Segment> segments = new PriorityQueue<>(
+            Comparator.comparingDouble((Segment segment) -> segment.error).reversed());
+        Segment whole = gaussKronrod(f, a, b);
+        segments.add(whole);
+        int evaluations = 15;
+        double value = whole.value;
+        double error = whole.error;
+        // segments too narrow to bisect; they stay in the totals
+        double settledValue = 0.0;
+        double settledError = 0.0;
+        boolean converged = true;
+        while (error > Math.max(absoluteTolerance, relativeTolerance * Math.abs(value))) {
+            if (segments.isEmpty() || evaluations + 30 > maxEvaluations) {
+                converged = false;
+                break;
+            }
+            Segment worst = segments.poll();
+            double midpoint = 0.5 * (worst.a + worst.b);
+            if (midpoint <= worst.a || midpoint >= worst.b) {
+                settledValue += worst.value;
+                settledError += worst.error;
+                continue;
+            }
+            Segment left = gaussKronrod(f, worst.a, midpoint);
+            Segment right = gaussKronrod(f, midpoint, worst.b);
+            evaluations += 30;
+            segments.add(left);
+            segments.add(right);
+            value += left.value + right.value - worst.value;
+            error += left.error + right.error - worst.error;
+        }
+        // re-sum to shed the rounding error of the running totals
+        value = settledValue;
+        error = settledError;
+        for (Segment segment : segments) {
+            value += segment.value;
+            error += segment.error;
+        }
+        return new IntegrationResult(value, error, evaluations, converged);
+    }
+
+    private static Segment gaussKronrod(DoubleUnaryOperator f, double a, double b) {
+        double halfWidth = 0.5 * (b - a);
+        double center = 0.5 * (a + b);
+        double fCenter = f.applyAsDouble(center);
+        double kronrod = KRONROD_WEIGHTS[7] * fCenter;
+        double gauss = GAUSS_WEIGHTS[3] * fCenter;
+        for (int i = 0; i < 7; i++) {
+            double dx = halfWidth * KRONROD_NODES[i];
+            double sum = f.applyAsDouble(center - dx) + f.applyAsDouble(center + dx);
+            kronrod += KRONROD_WEIGHTS[i] * sum;
+            if (i % 2 == 1) {
+                gauss += GAUSS_WEIGHTS[i / 2] * sum;
+            }
+        }
+        return new Segment(a, b, kronrod * halfWidth, Math.abs((kronrod - gauss) * halfWidth));
+    }
+
+    private static final class Segment {
+        private final double a;
+        private final double b;
+        private final double value;
+        private final double error;
+
+        private Segment(double a, double b, double value, double error) {
+            this.a = a;
+            this.b = b;
+            this.value = value;
+            this.error = error;
+        }
     }
 }
@@ -0,0 +1,46 @@
+package lock14.random.numerical;
+
+/**
+ * The outcome of an adaptive integration: the approximate value of the
+ * integral, an estimate of its absolute error and the number of integrand
+ * evaluations it took.
+ */
+public final class IntegrationResult {
+    private final double value;
+    private final double errorEstimate;
+    private final int evaluations;
+    private final boolean converged;
+
+    IntegrationResult(double value, double errorEstimate, int evaluations, boolean converged) {
+        this.value = value;
+        this.errorEstimate = errorEstimate;
+        this.evaluations = evaluations;
+        this.converged = converged;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns false if the evaluation budget ran out, or the interval could
+     * not be subdivided any further, before the tolerance was met.
+     */
+    public boolean hasConverged() {
+        return converged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s +/- %s (%d evaluations%s)", value, errorEstimate, evaluations,
+                             converged ? "" : ", not converged");
+    }
+}
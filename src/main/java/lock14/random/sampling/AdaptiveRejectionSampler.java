@@ -0,0 +1,302 @@
+package lock14.random.sampling;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Gilks and Wild's adaptive rejection sampler for log-concave densities.
+ * <p>
+ * The caller supplies h = log f, up to an additive constant, and optionally
+ * its derivative. Tangents to h at a set of abscissae form a piecewise linear
+ * upper hull, so exp of the hull is a piecewise exponential envelope that is
+ * sampled exactly, and the chords between the abscissae form a lower hull
+ * that serves as a squeeze. Every point at which h has to be evaluated is
+ * added to the abscissae, tightening both hulls, until the configured
+ * maximum is reached; the acceptance rate therefore rises towards one as
+ * the sampler warms up.
+ * <p>
+ * The initial abscissae must lie on both sides of the mode: h' must be
+ * positive at the first one unless the domain is bounded below, and
+ * negative at the last one unless it is bounded above. Without a derivative
+ * h' is estimated by central differences.
+ * <p>
+ * Source: W. R. Gilks and P. Wild, "Adaptive Rejection Sampling for Gibbs
+ * Sampling", Journal of the Royal Statistical Society C 41(2), 1992.
+ */
+public class AdaptiveRejectionSampler implements DoubleSampler {
+    public static final int DEFAULT_MAX_POINTS = 50;
+
+    private final DoubleUnaryOperator logDensity;
+    private final DoubleUnaryOperator derivative;
+    private final double lower;
+    private final double upper;
+    private final Random randomGenerator;
+
+    // abscissae in increasing order with h and h' at each
+    private final double[] xs;
+    private final double[] hs;
+    private final double[] slopes;
+    private int size;
+    // z[j], z[j + 1] bound the segment on which tangent j is the hull
+    private final double[] z;
+    private final double[] cumulativeArea;
+    private double offset;
+
+    private long proposals;
+    private long acceptances;
+    private long densityEvaluations;
+
+    public AdaptiveRejectionSampler(DoubleUnaryOperator logDensity, double[] initialPoints) {
+        this(logDensity, null, initialPoints, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+             DEFAULT_MAX_POINTS, new Random());
+    }
+
+    public AdaptiveRejectionSampler(DoubleUnaryOperator logDensity,
+                                    DoubleUnaryOperator derivative,
+                                    double[] initialPoints, Random random) {
+        this(logDensity, derivative, initialPoints, Double.NEGATIVE_INFINITY,
+             Double.POSITIVE_INFINITY, DEFAULT_MAX_POINTS, random);
+    }
+
+    /**
+     * @param derivative the derivative of the log density, or null to use
+     *                   central differences
+     * @param lower      the lower end of the support, possibly infinite
+     * @param upper      the upper end of the support, possibly infinite
+     * @param maxPoints  the largest number of abscissae the hulls will use
+     */
+    public AdaptiveRejectionSampler(DoubleUnaryOperator logDensity,
+                                    DoubleUnaryOperator derivative,
+                                    double[] initialPoints, double lower, double upper,
+                                    int maxPoints, Random random) {
+        if (!(lower < upper)) {
+            throw new IllegalArgumentException("Invalid domain, (lower=" + lower + ", upper=" + upper + ")");
+        }
+        if (initialPoints.length < 2 || maxPoints < initialPoints.length) {
+            throw new IllegalArgumentException(
+                    "Need at least two initial points and no more than maxPoints");
+        }
+        this.logDensity = logDensity;
+        this.derivative = (derivative != null) ? derivative : this::centralDifference;
+        this.lower = lower;
+        this.upper = upper;
+        this.randomGenerator = random;
+        this.xs = new double[maxPoints];
+        this.hs = new double[maxPoints];
+        this.slopes = new double[maxPoints];
+        this.z = new double[maxPoints + 1];
+        this.cumulativeArea = new double[maxPoints];
+
+        double[] sorted = initialPoints.clone();
+        Arrays.sort(sorted);
+        for (double x : sorted) {
+            if (!(x > lower && x < upper)) {
+                throw new IllegalArgumentException("Initial point outside the domain: " + x);
+            }
+            if (size == 0 || x > xs[size - 1]) {
+                xs[size] = x;
+                hs[size] = logDensity.applyAsDouble(x);
+                slopes[size] = this.derivative.applyAsDouble(x);
+                size++;
+            }
+        }
+        if (Double.isInfinite(lower) && !(slopes[0] > 0.0)) {
+            throw new IllegalArgumentException(
+                    "The log density must increase at the first point when unbounded below");
+        }
+        if (Double.isInfinite(upper) && !(slopes[size - 1] < 0.0)) {
+            throw new IllegalArgumentException(
+                    "The log density must decrease at the last point when unbounded above");
+        }
+        updateHull();
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        randomGenerator.setSeed(seed);
+    }
+
+    @Override
+    public double sampleDouble() {
+        while (true) {
+            proposals++;
+            double x = sampleEnvelope();
+            int j = segment(x);
+            double upperHull = hs[j] + slopes[j] * (x - xs[j]);
+            double logU = Math.log(1.0 - randomGenerator.nextDouble());
+            if (logU <= lowerHull(x) - upperHull) {
+                acceptances++;
+                return x;
+            }
+            densityEvaluations++;
+            double hx = logDensity.applyAsDouble(x);
+            boolean accepted = logU <= hx - upperHull;
+            if (size < xs.length) {
+                insert(x, hx);
+            }
+            if (accepted) {
+                acceptances++;
+                return x;
+            }
+        }
+    }
+
+    public long getProposals() {
+        return proposals;
+    }
+
+    public long getAcceptances() {
+        return acceptances;
+    }
+
+    public long getDensityEvaluations() {
+        return densityEvaluations;
+    }
+
+    public double getAcceptanceRate() {
+        return (proposals == 0) ? Double.NaN : (double) acceptances / proposals;
+    }
+
+    /**
+     * Returns the number of abscissae the hulls are currently built on.
+     */
+    public int getHullSize() {
+        return size;
+    }
+
+    private double sampleEnvelope() {
+        double area = randomGenerator.nextDouble() * cumulativeArea[size - 1];
+        // first segment whose cumulative area exceeds the draw
+        int lo = 0;
+        int hi = size - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (area >= cumulativeArea[mid]) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int j = lo;
+        double segmentArea = cumulativeArea[j] - ((j == 0) ? 0.0 : cumulativeArea[j - 1]);
+        // the share of the segment's area that lies to the right of the point
+        double fraction = Math.min(1.0, Math.max(0.0, (cumulativeArea[j] - area) / segmentArea));
+        double s = slopes[j];
+        double left = z[j];
+        double right = z[j + 1];
+        double x;
+        if (Double.isInfinite(left)) {
+            x = right + Math.log(1.0 - fraction) / s;
+        } else if (Double.isInfinite(right)) {
+            x = left + Math.log(fraction) / s;
+        } else if (s > 0.0) {
+            x = right + Math.log1p(fraction * Math.expm1(-s * (right - left))) / s;
+        } else if (s < 0.0) {
+            x = left + Math.log1p((1.0 - fraction) * Math.expm1(s * (right - left))) / s;
+        } else {
+            x = right - fraction * (right - left);
+        }
+        return Math.min(right, Math.max(left, x));
+    }
+
+    // the tangent whose segment contains x
+    private int segment(double x) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x > z[mid + 1]) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private double lowerHull(double x) {
+        if (x < xs[0] || x > xs[size - 1]) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int i = Arrays.binarySearch(xs, 0, size, x);
+        if (i >= 0) {
+            return hs[i];
+        }
+        i = -i - 2;
+        return ((xs[i + 1] - x) * hs[i] + (x - xs[i]) * hs[i + 1]) / (xs[i + 1] - xs[i]);
+    }
+
+    private void insert(double x, double hx) {
+        int i = Arrays.binarySearch(xs, 0, size, x);
+        if (i >= 0 || Double.isInfinite(hx) || Double.isNaN(hx)) {
+            return;
+        }
+        i = -i - 1;
+        double slope = derivative.applyAsDouble(x);
+        // allow for rounding where h is close to linear, then keep the
+        // slopes monotone so the tangents still intersect in order
+        double tolerance = 1e-6 * (Math.abs(slope) + 1.0);
+        if ((i > 0 && slope > slopes[i - 1] + tolerance) || (i < size && slope < slopes[i] - tolerance)) {
+            throw new IllegalArgumentException("The density is not log-concave near x = " + x);
+        }
+        if (i > 0) {
+            slope = Math.min(slope, slopes[i - 1]);
+        }
+        if (i < size) {
+            slope = Math.max(slope, slopes[i]);
+        }
+        System.arraycopy(xs, i, xs, i + 1, size - i);
+        System.arraycopy(hs, i, hs, i + 1, size - i);
+        System.arraycopy(slopes, i, slopes, i + 1, size - i);
+        xs[i] = x;
+        hs[i] = hx;
+        slopes[i] = slope;
+        size++;
+        updateHull();
+    }
+
+    private void updateHull() {
+        offset = hs[0];
+        for (int j = 1; j < size; j++) {
+            offset = Math.max(offset, hs[j]);
+        }
+        z[0] = lower;
+        z[size] = upper;
+        for (int j = 0; j < size - 1; j++) {
+            double ds = slopes[j] - slopes[j + 1];
+            // parallel tangents meet nowhere, so split the gap between them
+            z[j + 1] = (ds > 1e-12 * (Math.abs(slopes[j]) + Math.abs(slopes[j + 1])))
+                       ? (hs[j + 1] - hs[j] - xs[j + 1] * slopes[j + 1] + xs[j] * slopes[j]) / ds
+                       : 0.5 * (xs[j] + xs[j + 1]);
+            z[j + 1] = Math.min(xs[j + 1], Math.max(xs[j], z[j + 1]));
+        }
+        double total = 0.0;
+        for (int j = 0; j < size; j++) {
+            total += segmentArea(j);
+            cumulativeArea[j] = total;
+        }
+    }
+
+    // integral of exp(hull - offset) over segment j, taken from its higher end
+    private double segmentArea(int j) {
+        double s = slopes[j];
+        double left = z[j];
+        double right = z[j + 1];
+        double high = (s > 0.0) ? right : left;
+        double peak = Math.exp(hs[j] + s * (high - xs[j]) - offset);
+        double width = right - left;
+        if (Double.isInfinite(width)) {
+            return peak / Math.abs(s);
+        }
+        double decay = Math.abs(s) * width;
+        return (decay < 1e-12) ? peak * width : -peak * Math.expm1(-decay) / Math.abs(s);
+    }
+
+    private double centralDifference(double x) {
+        double h = 1e-6 * Math.max(1.0, Math.abs(x));
+        double a = Math.max(lower, x - h);
+        double b = Math.min(upper, x + h);
+        return (logDensity.applyAsDouble(b) - logDensity.applyAsDouble(a)) / (b - a);
+    }
+}
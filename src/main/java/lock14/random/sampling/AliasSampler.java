@@ -0,0 +1,141 @@
+package lock14.random.sampling;
+
+import lock14.random.distribution.Distribution;
+
+import java.util.Random;
+
+/**
+ * Samples a finite discrete distribution in constant time with Walker's alias
+ * method, using Vose's O(n) construction.
+ * <p>
+ * The table is two parallel arrays: column i keeps outcome i with probability
+ * prob[i] and otherwise yields alias[i]. A draw picks the column and the coin
+ * from a single uniform, the integer part selecting the column and the
+ * fractional part deciding between the two outcomes.
+ * <p>
+ * Source: M. D. Vose, "A Linear Algorithm for Generating Random Numbers with
+ * a Given Distribution", IEEE Transactions on Software Engineering 17(9), 1991.
+ */
+public class AliasSampler implements IntSampler {
+    private final Random randomGenerator;
+    private final double[] prob;
+    private final int[] alias;
+    private final int offset;
+
+    public AliasSampler(double[] weights) {
+        this(weights, 0, new Random());
+    }
+
+    public AliasSampler(double[] weights, Random random) {
+        this(weights, 0, random);
+    }
+
+    /**
+     * Builds a sampler returning offset + i with probability proportional to
+     * weights[i]. The weights need not sum to one.
+     */
+    public AliasSampler(double[] weights, int offset, Random random) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one weight is required");
+        }
+        double total = 0.0;
+        for (double weight : weights) {
+            if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0.0) {
+            throw new IllegalArgumentException("Weights must not all be zero");
+        }
+        this.randomGenerator = random;
+        this.prob = new double[n];
+        this.alias = new int[n];
+        this.offset = offset;
+
+        // scaled[i] = n * p[i], so the average column holds exactly 1
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            prob[less] = scaled[less];
+            alias[less] = more;
+            // subtracting the deficit keeps the rounding error smaller
+            // than computing (scaled[more] + scaled[less]) - 1
+            scaled[more] -= 1.0 - scaled[less];
+            if (scaled[more] < 1.0) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+        // whatever is left over is 1 up to rounding
+        while (largeSize > 0) {
+            int i = large[--largeSize];
+            prob[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallSize > 0) {
+            int i = small[--smallSize];
+            prob[i] = 1.0;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * Tabulates the pdf of a distribution supported on [lower, upper].
+     */
+    public static AliasSampler of(Distribution<Integer> distribution, int lower, int upper) {
+        return of(distribution, lower, upper, new Random());
+    }
+
+    public static AliasSampler of(Distribution<Integer> distribution, int lower, int upper,
+                                  Random random) {
+        if (upper < lower || (long) upper - lower >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid support, (lower=%d, upper=%d)", lower, upper));
+        }
+        double[] weights = new double[upper - lower + 1];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = distribution.pdf(lower + i);
+        }
+        return new AliasSampler(weights, lower, random);
+    }
+
+    /**
+     * Returns the number of outcomes in the table.
+     */
+    public int size() {
+        return prob.length;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        randomGenerator.setSeed(seed);
+    }
+
+    @Override
+    public int sampleInt() {
+        return offset + next(randomGenerator.nextDouble());
+    }
+
+    private int next(double u) {
+        double scaled = u * prob.length;
+        // u * n can round up to n when n is large
+        int column = Math.min((int) scaled, prob.length - 1);
+        return (scaled - column < prob[column]) ? column : alias[column];
+    }
+}
@@ -0,0 +1,170 @@
+package lock14.random.sampling;
+
+import lock14.random.distribution.DoubleDistribution;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Rejection sampling on primitive doubles, in blocks, with optional squeezes.
+ * <p>
+ * A candidate x is drawn by inverting the proposal's cdf and accepted when
+ * u M q(x) <= f(x), where f is the (possibly unnormalized) target density, q
+ * the proposal density and M a constant with f <= M q everywhere. A cheap
+ * lower squeeze s <= f accepts without evaluating f when u M q(x) <= s(x),
+ * and an upper squeeze S >= f rejects when u M q(x) > S(x), so f is only
+ * evaluated in the band between them.
+ * <p>
+ * All uniforms, for the proposal and for the acceptance test, come from one
+ * generator, so {@link #setSeed(long)} makes the output reproducible.
+ * Candidates are generated a block at a time and the accepted ones buffered.
+ * The counters report the real cost: proposals per acceptance is the average
+ * number of candidates drawn per variate, and density evaluations per
+ * acceptance how often the squeezes failed to decide.
+ */
+public class BatchRejectionSampler implements DoubleSampler {
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+
+    private final DoubleUnaryOperator density;
+    private final DoubleUnaryOperator lowerSqueeze;
+    private final DoubleUnaryOperator upperSqueeze;
+    private final DoubleDistribution proposal;
+    private final double multiplier;
+    private final Random randomGenerator;
+
+    private final double[] candidates;
+    private final double[] thresholds;
+    private final double[] accepted;
+    private int acceptedCount;
+    private int acceptedPosition;
+
+    private long proposals;
+    private long acceptances;
+    private long densityEvaluations;
+
+    public BatchRejectionSampler(DoubleUnaryOperator density, DoubleDistribution proposal,
+                                 double multiplier) {
+        this(density, null, null, proposal, multiplier, new Random(), DEFAULT_BLOCK_SIZE);
+    }
+
+    public BatchRejectionSampler(DoubleUnaryOperator density, DoubleDistribution proposal,
+                                 double multiplier, Random random) {
+        this(density, null, null, proposal, multiplier, random, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param lowerSqueeze a function below the density, or null
+     * @param upperSqueeze a function above the density, or null
+     */
+    public BatchRejectionSampler(DoubleUnaryOperator density,
+                                 DoubleUnaryOperator lowerSqueeze,
+                                 DoubleUnaryOperator upperSqueeze,
+                                 DoubleDistribution proposal, double multiplier, Random random) {
+        this(density, lowerSqueeze, upperSqueeze, proposal, multiplier, random, DEFAULT_BLOCK_SIZE);
+    }
+
+    public BatchRejectionSampler(DoubleUnaryOperator density,
+                                 DoubleUnaryOperator lowerSqueeze,
+                                 DoubleUnaryOperator upperSqueeze,
+                                 DoubleDistribution proposal, double multiplier, Random random,
+                                 int blockSize) {
+        if (!(multiplier > 0.0) || Double.isInfinite(multiplier)) {
+            throw new IllegalArgumentException("Invalid proposal multiplier: " + multiplier);
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.density = density;
+        this.lowerSqueeze = lowerSqueeze;
+        this.upperSqueeze = upperSqueeze;
+        this.proposal = proposal;
+        this.multiplier = multiplier;
+        this.randomGenerator = random;
+        this.candidates = new double[blockSize];
+        this.thresholds = new double[blockSize];
+        this.accepted = new double[blockSize];
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        randomGenerator.setSeed(seed);
+        acceptedCount = 0;
+        acceptedPosition = 0;
+    }
+
+    @Override
+    public double sampleDouble() {
+        while (acceptedPosition == acceptedCount) {
+            nextBlock();
+        }
+        return accepted[acceptedPosition++];
+    }
+
+    @Override
+    public void fill(double[] dst, int off, int len) {
+        int written = 0;
+        while (written < len) {
+            if (acceptedPosition == acceptedCount) {
+                nextBlock();
+            }
+            int n = Math.min(acceptedCount - acceptedPosition, len - written);
+            System.arraycopy(accepted, acceptedPosition, dst, off + written, n);
+            acceptedPosition += n;
+            written += n;
+        }
+    }
+
+    public long getProposals() {
+        return proposals;
+    }
+
+    public long getAcceptances() {
+        return acceptances;
+    }
+
+    public long getDensityEvaluations() {
+        return densityEvaluations;
+    }
+
+    public double getAcceptanceRate() {
+        return (proposals == 0) ? Double.NaN : (double) acceptances / proposals;
+    }
+
+    public void resetCounters() {
+        proposals = 0;
+        acceptances = 0;
+        densityEvaluations = 0;
+    }
+
+    private void nextBlock() {
+        int blockSize = candidates.length;
+        for (int i = 0; i < blockSize; i++) {
+            double x = proposal.inverseCdf(randomGenerator.nextDouble());
+            candidates[i] = x;
+            thresholds[i] = randomGenerator.nextDouble() * multiplier * proposal.pdf(x);
+        }
+        int count = 0;
+        int evaluations = 0;
+        for (int i = 0; i < blockSize; i++) {
+            double x = candidates[i];
+            double threshold = thresholds[i];
+            boolean accept;
+            if (lowerSqueeze != null && threshold <= lowerSqueeze.applyAsDouble(x)) {
+                accept = true;
+            } else if (upperSqueeze != null && threshold > upperSqueeze.applyAsDouble(x)) {
+                accept = false;
+            } else {
+                evaluations++;
+                accept = threshold <= density.applyAsDouble(x);
+            }
+            if (accept) {
+                accepted[count++] = x;
+            }
+        }
+        proposals += blockSize;
+        acceptances += count;
+        densityEvaluations += evaluations;
+        acceptedCount = count;
+        acceptedPosition = 0;
+    }
+}
@@ -1,8 +1,8 @@
 package lock14.random.sampling;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.DoubleStream;
 
 public interface DistributionSampler<N extends Number> {
 
@@ -11,8 +11,32 @@ public interface DistributionSampler<N extends Number> {
     N sample();
     
     default List<N> sample(int n) {
-        return Stream.generate(this::sample)
-                     .limit(n)
-                     .collect(Collectors.toList());
+        List<N> samples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            samples.add(sample());
+        }
+        return samples;
+    }
+
+    /**
+     * Writes {@code len} variates into {@code dst} starting at {@code off}.
+     * Implementations are encouraged to override this with a loop that does
+     * not box each variate.
+     */
+    default void fill(double[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            dst[i] = sample().doubleValue();
+        }
+    }
+
+    default double[] sampleArray(int n) {
+        double[] samples = new double[n];
+        fill(samples, 0, n);
+        return samples;
+    }
+
+    default DoubleStream doubles(long n) {
+        return DoubleStream.generate(() -> sample().doubleValue())
+                           .limit(n);
     }
 }
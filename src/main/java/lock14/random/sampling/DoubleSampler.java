@@ -0,0 +1,30 @@
+package lock14.random.sampling;
+
+import java.util.stream.DoubleStream;
+
+/**
+ * A {@link DistributionSampler} of real valued variates that can be drawn
+ * without boxing them.
+ */
+public interface DoubleSampler extends DistributionSampler<Double> {
+
+    double sampleDouble();
+
+    @Override
+    default Double sample() {
+        return sampleDouble();
+    }
+
+    @Override
+    default void fill(double[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            dst[i] = sampleDouble();
+        }
+    }
+
+    @Override
+    default DoubleStream doubles(long n) {
+        return DoubleStream.generate(this::sampleDouble)
+                           .limit(n);
+    }
+}
@@ -0,0 +1,114 @@
+package lock14.random.sampling;
+
+import lock14.random.Xoshiro256StarStar;
+
+/**
+ * The Halton sequence: coordinate j of point n is the radical inverse of n
+ * in the j-th prime base, its base-b digits mirrored about the radix point.
+ * Any index can be reached directly, and there is no limit on the
+ * dimension, though beyond a few dozen dimensions the large bases make the
+ * projections onto pairs of coordinates visibly correlated for small n.
+ * <p>
+ * The sequence starts at index 1, since every coordinate of point 0 is 0.
+ * With a seed every coordinate is shifted by its own uniform amount modulo
+ * one (a Cranley-Patterson rotation), which keeps the discrepancy while
+ * making each point uniformly distributed.
+ */
+public class HaltonSequence implements LowDiscrepancySequence {
+    private final int dimension;
+    private final int[] bases;
+    private final double[] shifts;
+    private final boolean randomized;
+    private long index;
+
+    /**
+     * Creates the plain sequence.
+     */
+    public HaltonSequence(int dimension) {
+        this(dimension, false, 0L);
+    }
+
+    /**
+     * Creates a randomly shifted sequence.
+     */
+    public HaltonSequence(int dimension, long seed) {
+        this(dimension, true, seed);
+    }
+
+    private HaltonSequence(int dimension, boolean randomized, long seed) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Dimension must be positive: " + dimension);
+        }
+        this.dimension = dimension;
+        this.randomized = randomized;
+        this.bases = new int[dimension];
+        this.shifts = new double[dimension];
+        int candidate = 2;
+        for (int j = 0; j < dimension; candidate++) {
+            boolean prime = true;
+            for (int i = 0; i < j && bases[i] * bases[i] <= candidate; i++) {
+                if (candidate % bases[i] == 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime) {
+                bases[j++] = candidate;
+            }
+        }
+        setSeed(seed);
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public long getIndex() {
+        return index;
+    }
+
+    @Override
+    public void skipTo(long index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index out of range: " + index);
+        }
+        this.index = index;
+    }
+
+    /**
+     * Draws new shifts when the sequence is randomized, and restarts it.
+     */
+    @Override
+    public void setSeed(long seed) {
+        if (randomized) {
+            Xoshiro256StarStar random = new Xoshiro256StarStar(seed);
+            for (int j = 0; j < dimension; j++) {
+                shifts[j] = random.nextDouble();
+            }
+        }
+        skipTo(1);
+    }
+
+    @Override
+    public void nextPoint(double[] point) {
+        for (int j = 0; j < dimension; j++) {
+            double x = radicalInverse(index, bases[j]) + shifts[j];
+            point[j] = (x >= 1.0) ? x - 1.0 : x;
+        }
+        index++;
+    }
+
+    private static double radicalInverse(long n, int base) {
+        double inverse = 1.0 / base;
+        double factor = inverse;
+        double x = 0.0;
+        while (n > 0) {
+            x += (n % base) * factor;
+            n /= base;
+            factor *= inverse;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,47 @@
+package lock14.random.sampling;
+
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link DistributionSampler} of integer valued variates that can be drawn
+ * without boxing them.
+ */
+public interface IntSampler extends DistributionSampler<Integer> {
+
+    int sampleInt();
+
+    @Override
+    default Integer sample() {
+        return sampleInt();
+    }
+
+    default void fill(int[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            dst[i] = sampleInt();
+        }
+    }
+
+    default int[] sampleIntArray(int n) {
+        int[] samples = new int[n];
+        fill(samples, 0, n);
+        return samples;
+    }
+
+    default IntStream ints(long n) {
+        return IntStream.generate(this::sampleInt)
+                        .limit(n);
+    }
+
+    @Override
+    default void fill(double[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            dst[i] = sampleInt();
+        }
+    }
+
+    @Override
+    default DoubleStream doubles(long n) {
+        return ints(n).asDoubleStream();
+    }
+}
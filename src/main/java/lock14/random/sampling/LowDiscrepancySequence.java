@@ -0,0 +1,56 @@
+package lock14.random.sampling;
+
+import lock14.random.distribution.DoubleDistribution;
+
+/**
+ * A deterministic sequence of points in the unit cube [0, 1)^d that fills
+ * it more evenly than independent uniforms do. Feeding the coordinates
+ * through inverse cdfs gives quasi-Monte Carlo estimates whose error falls
+ * close to 1 / n instead of 1 / sqrt(n).
+ * <p>
+ * Randomized sequences take a seed; {@link #setSeed(long)} draws a new
+ * randomization and restarts the sequence, so independent replications
+ * give an error estimate.
+ */
+public interface LowDiscrepancySequence {
+
+    int getDimension();
+
+    /**
+     * Returns the index of the point the next call to nextPoint produces.
+     */
+    long getIndex();
+
+    /**
+     * Moves to the given index without generating the points before it.
+     */
+    void skipTo(long index);
+
+    void setSeed(long seed);
+
+    /**
+     * Writes the next point into the first getDimension() entries of point.
+     */
+    void nextPoint(double[] point);
+
+    default double[] nextPoint() {
+        double[] point = new double[getDimension()];
+        nextPoint(point);
+        return point;
+    }
+
+    /**
+     * Writes the next point with coordinate j transformed by the inverse cdf
+     * of marginals[j].
+     */
+    default void nextPoint(double[] point, DoubleDistribution... marginals) {
+        if (marginals.length != getDimension()) {
+            throw new IllegalArgumentException(
+                    "Expected " + getDimension() + " marginals, got " + marginals.length);
+        }
+        nextPoint(point);
+        for (int j = 0; j < marginals.length; j++) {
+            point[j] = marginals[j].inverseCdf(point[j]);
+        }
+    }
+}
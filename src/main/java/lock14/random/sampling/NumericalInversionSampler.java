@@ -0,0 +1,451 @@
+package lock14.random.sampling;
+
+import lock14.random.distribution.Distribution;
+import lock14.random.distribution.DoubleDistribution;
+import lock14.random.numerical.Integration;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Samples a continuous distribution by inverting a polynomial interpolation
+ * of its cdf, after the method PINV of Derflinger, Hormann and Leydold.
+ * <p>
+ * Setup splits the computational domain into intervals. On each one the
+ * inverse cdf is interpolated by a Newton polynomial through Chebyshev
+ * nodes, the cdf increments between nodes coming from 5-point
+ * Gauss-Lobatto quadrature of the pdf. An interval is accepted once the
+ * u-error |F(G(u)) - u| at the points between the nodes is below the
+ * requested resolution, and shortened otherwise. A draw is then a guide
+ * table lookup plus one polynomial evaluation, whatever the distribution.
+ * <p>
+ * Only the pdf is needed, up to a constant factor. It must be continuous
+ * and bounded on the domain, so for a density with a pole at an end of its
+ * support pass a slightly smaller domain. Infinite tails are cut where the
+ * mass beyond is negligible next to the resolution, using the cdf when one
+ * is given and the decay of the pdf otherwise.
+ * <p>
+ * Source: G. Derflinger, W. Hormann and J. Leydold, "Random Variate
+ * Generation by Numerical Inversion when only the Density is Known", ACM
+ * Transactions on Modeling and Computer Simulation 20(4), 2010.
+ */
+public class NumericalInversionSampler implements DoubleSampler {
+    public static final double DEFAULT_U_RESOLUTION = 1e-10;
+    public static final int DEFAULT_ORDER = 5;
+    private static final int MAX_INTERVALS = 100000;
+    private static final double TAIL_FACTOR = 0.05;
+    // 5-point Gauss-Lobatto rule on [-1, 1]
+    private static final double[] LOBATTO_NODES = {-1.0, -Math.sqrt(3.0 / 7.0), 0.0,
+                                                   Math.sqrt(3.0 / 7.0), 1.0};
+    private static final double[] LOBATTO_WEIGHTS = {0.1, 49.0 / 90.0, 32.0 / 45.0, 49.0 / 90.0, 0.1};
+
+    private final Random randomGenerator;
+    private final int order;
+    private final double area;
+    private final int intervals;
+    // interval i covers [uStart[i], uStart[i + 1]) of the unnormalized cdf;
+    // nodes and coefficients hold its order + 1 Newton nodes (relative to
+    // uStart[i]) and divided differences, one block per interval
+    private final double[] uStart;
+    private final double[] nodes;
+    private final double[] coefficients;
+    private final int[] guide;
+
+    public NumericalInversionSampler(Distribution<Double> distribution, double lower, double upper) {
+        this(distribution, lower, upper, new Random());
+    }
+
+    /**
+     * Samples the given distribution on [lower, upper], using its cdf to
+     * locate the tails. The search for the computational domain starts at
+     * the median, which unlike the mean exists for heavy tailed
+     * distributions such as the Cauchy. It is solved for from the cdf, so
+     * the distribution's inverse cdf is never called.
+     */
+    public NumericalInversionSampler(Distribution<Double> distribution, double lower, double upper,
+                                     Random random) {
+        this(distribution, density(distribution), cumulative(distribution), lower, upper, random);
+    }
+
+    private NumericalInversionSampler(Distribution<Double> distribution, DoubleUnaryOperator pdf,
+                                      DoubleUnaryOperator cdf, double lower, double upper, Random random) {
+        this(pdf, cdf, lower, upper, median(distribution, pdf, cdf, lower, upper),
+             DEFAULT_U_RESOLUTION, DEFAULT_ORDER, random);
+    }
+
+    /**
+     * @param pdf         the density, possibly unnormalized
+     * @param cdf         the matching cdf, used only to locate the tails, or null
+     * @param lower       the lower end of the support, possibly infinite
+     * @param upper       the upper end of the support, possibly infinite
+     * @param center      a point of high density, such as the mode or the mean
+     * @param uResolution the largest u-error allowed, relative to the total mass
+     * @param order       the degree of the interpolating polynomials
+     */
+    public NumericalInversionSampler(DoubleUnaryOperator pdf, DoubleUnaryOperator cdf,
+                                     double lower, double upper, double center,
+                                     double uResolution, int order, Random random) {
+        if (!(lower < upper) || !(center >= lower && center <= upper)) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid domain, (lower=%s, center=%s, upper=%s)", lower, center, upper));
+        }
+        if (!(uResolution >= 1e-15 && uResolution <= 1e-2)) {
+            throw new IllegalArgumentException("Invalid u-resolution: " + uResolution);
+        }
+        if (order < 2 || order > 12) {
+            throw new IllegalArgumentException("Order must be between 2 and 12: " + order);
+        }
+        double fCenter = pdf.applyAsDouble(center);
+        if (!(fCenter > 0.0) || Double.isInfinite(fCenter)) {
+            throw new IllegalArgumentException("The density at the center must be positive and finite");
+        }
+        this.randomGenerator = random;
+        this.order = order;
+
+        double scale = halfWidth(pdf, center, fCenter, lower, upper);
+        double left = tailCut(pdf, cdf, center, lower, scale, fCenter, uResolution);
+        double right = tailCut(pdf, cdf, center, upper, scale, fCenter, uResolution);
+        double mass = mass(pdf, left, right, center, scale);
+        if (!(mass > 0.0) || Double.isInfinite(mass)) {
+            throw new IllegalArgumentException("The density does not have a finite positive integral");
+        }
+
+        // build the intervals from left to right, adapting their length
+        double tolerance = uResolution * mass;
+        double[] uStarts = new double[64];
+        double[] allNodes = new double[64 * (order + 1)];
+        double[] allCoefficients = new double[64 * (order + 1)];
+        double[] t = new double[order + 1];
+        double[] xs = new double[order + 1];
+        double[] c = new double[order + 1];
+        int count = 0;
+        double u = 0.0;
+        double x = left;
+        double h = Math.min(scale, right - left);
+        while (x < right) {
+            if (count == MAX_INTERVALS) {
+                throw new IllegalArgumentException("Too many intervals needed for the u-resolution");
+            }
+            boolean last = h >= right - x;
+            if (last) {
+                h = right - x;
+            }
+            double error = interpolate(pdf, x, h, t, xs, c);
+            if (!(error <= tolerance)) {
+                if (h <= 1e-13 * Math.max(1.0, Math.abs(x))) {
+                    throw new IllegalArgumentException(
+                            "Cannot reach the u-resolution near x = " + x + ", is the density continuous?");
+                }
+                h *= (error > 0.0 && !Double.isInfinite(error))
+                     ? Math.max(0.1, Math.min(0.9, 0.9 * Math.pow(tolerance / error, 1.0 / (order + 1))))
+                     : 0.5;
+                continue;
+            }
+            if (t[order] > 0.0) {
+                if (count == uStarts.length) {
+                    uStarts = Arrays.copyOf(uStarts, 2 * count);
+                    allNodes = Arrays.copyOf(allNodes, 2 * count * (order + 1));
+                    allCoefficients = Arrays.copyOf(allCoefficients, 2 * count * (order + 1));
+                }
+                uStarts[count] = u;
+                System.arraycopy(t, 0, allNodes, count * (order + 1), order + 1);
+                System.arraycopy(c, 0, allCoefficients, count * (order + 1), order + 1);
+                count++;
+                u += t[order];
+            }
+            x = last ? right : xs[order];
+            double growth = (error > 0.0) ? 0.9 * Math.pow(tolerance / error, 1.0 / (order + 1)) : 2.0;
+            h *= Math.max(1.0, Math.min(2.0, growth));
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("The density has no mass on the domain");
+        }
+        this.area = u;
+        this.intervals = count;
+        this.uStart = Arrays.copyOf(uStarts, count + 1);
+        this.uStart[count] = u;
+        this.nodes = Arrays.copyOf(allNodes, count * (order + 1));
+        this.coefficients = Arrays.copyOf(allCoefficients, count * (order + 1));
+
+        // guide[k] is the interval containing u = k / count of the mass
+        this.guide = new int[count];
+        int j = 0;
+        for (int k = 0; k < count; k++) {
+            double target = area * k / count;
+            while (j < count - 1 && uStart[j + 1] <= target) {
+                j++;
+            }
+            guide[k] = j;
+        }
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        randomGenerator.setSeed(seed);
+    }
+
+    @Override
+    public double sampleDouble() {
+        return evaluate(randomGenerator.nextDouble());
+    }
+
+    /**
+     * Returns the approximate quantile, within the u-resolution.
+     */
+    public double inverseCdf(double p) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException("Invalid probability: p = " + p);
+        }
+        return evaluate(p);
+    }
+
+    /**
+     * Returns the number of polynomial pieces built during setup.
+     */
+    public int getIntervalCount() {
+        return intervals;
+    }
+
+    private double evaluate(double p) {
+        double u = p * area;
+        int i = guide[Math.min((int) (p * intervals), intervals - 1)];
+        while (i < intervals - 1 && uStart[i + 1] <= u) {
+            i++;
+        }
+        double t = u - uStart[i];
+        int base = i * (order + 1);
+        double x = coefficients[base + order];
+        for (int k = order - 1; k >= 0; k--) {
+            x = coefficients[base + k] + (t - nodes[base + k]) * x;
+        }
+        return x;
+    }
+
+    /*
+     * Interpolates the inverse cdf on [x, x + h] through Chebyshev nodes,
+     * leaving the cdf increments in t, the nodes in xs and the divided
+     * differences in c, and returns the largest u-error found between nodes.
+     */
+    private double interpolate(DoubleUnaryOperator pdf, double x, double h,
+                               double[] t, double[] xs, double[] c) {
+        int n = order;
+        for (int k = 0; k <= n; k++) {
+            xs[k] = x + 0.5 * h * (1.0 - Math.cos(Math.PI * k / n));
+        }
+        xs[n] = x + h;
+        t[0] = 0.0;
+        for (int k = 1; k <= n; k++) {
+            t[k] = t[k - 1] + lobatto(pdf, xs[k - 1], xs[k]);
+        }
+        if (t[n] == 0.0) {
+            // no mass here, the interval is skipped
+            return 0.0;
+        }
+        for (int k = 0; k <= n; k++) {
+            c[k] = xs[k];
+        }
+        for (int j = 1; j <= n; j++) {
+            for (int k = n; k >= j; k--) {
+                c[k] = (c[k] - c[k - 1]) / (t[k] - t[k - j]);
+            }
+        }
+        double error = 0.0;
+        for (int k = 1; k <= n; k++) {
+            double tm = 0.5 * (t[k - 1] + t[k]);
+            double xm = c[n];
+            for (int i = n - 1; i >= 0; i--) {
+                xm = c[i] + (tm - t[i]) * xm;
+            }
+            double um = t[k - 1] + lobatto(pdf, xs[k - 1], xm);
+            error = Math.max(error, Math.abs(um - tm));
+            if (Double.isNaN(um)) {
+                return Double.NaN;
+            }
+        }
+        return error;
+    }
+
+    /*
+     * Integrates the density over segments that double in length away from
+     * the center, so a narrow peak is not missed on a long computational
+     * domain.
+     */
+    private static double mass(DoubleUnaryOperator pdf, double left, double right,
+                               double center, double scale) {
+        double mass = 0.0;
+        double inner = center;
+        for (double width = scale; inner < right; width *= 2.0) {
+            double outer = Math.min(right, center + width);
+            mass += Integration.adaptiveGaussKronrod(pdf, inner, outer).getValue();
+            inner = outer;
+        }
+        inner = center;
+        for (double width = scale; inner > left; width *= 2.0) {
+            double outer = Math.max(left, center - width);
+            mass += Integration.adaptiveGaussKronrod(pdf, outer, inner).getValue();
+            inner = outer;
+        }
+        return mass;
+    }
+
+    private static double lobatto(DoubleUnaryOperator pdf, double a, double b) {
+        double halfWidth = 0.5 * (b - a);
+        double midpoint = 0.5 * (a + b);
+        double sum = 0.0;
+        for (int i = 0; i < LOBATTO_NODES.length; i++) {
+            sum += LOBATTO_WEIGHTS[i] * pdf.applyAsDouble(midpoint + halfWidth * LOBATTO_NODES[i]);
+        }
+        return sum * halfWidth;
+    }
+
+    // the distance from the center at which the density halves, a rough scale
+    private static double halfWidth(DoubleUnaryOperator pdf, double center, double fCenter,
+                                    double lower, double upper) {
+        double room = Math.max(upper - center, center - lower);
+        double s = Math.min(1.0, 0.5 * room);
+        if (halfHeight(pdf, center, s, fCenter, lower, upper)) {
+            for (int i = 0; i < 1100 && 2.0 * s < room
+                            && halfHeight(pdf, center, 2.0 * s, fCenter, lower, upper); i++) {
+                s *= 2.0;
+            }
+        } else {
+            for (int i = 0; i < 1100 && !halfHeight(pdf, center, s, fCenter, lower, upper); i++) {
+                s *= 0.5;
+            }
+        }
+        return s;
+    }
+
+    private static boolean halfHeight(DoubleUnaryOperator pdf, double center, double s,
+                                      double fCenter, double lower, double upper) {
+        return Math.max(density(pdf, center - s, lower, upper),
+                        density(pdf, center + s, lower, upper)) >= 0.5 * fCenter;
+    }
+
+    private static double density(DoubleUnaryOperator pdf, double x, double lower, double upper) {
+        return (x < lower || x > upper) ? 0.0 : pdf.applyAsDouble(x);
+    }
+
+    /*
+     * Walks from the center towards the bound until the mass beyond is
+     * negligible: by the cdf when there is one, and otherwise once f(x) times
+     * the distance covered, which bounds the tail mass of exponential and
+     * power law tails alike, is small enough. Towards an infinite bound the
+     * step doubles, towards a finite one the remaining distance halves; the
+     * latter matters where the density vanishes at the bound, since the
+     * inverse cdf has an infinite slope there that no polynomial can follow.
+     * Where the density drops to zero the edge of its support is found by
+     * bisection.
+     */
+    private static double tailCut(DoubleUnaryOperator pdf, DoubleUnaryOperator cdf, double center,
+                                  double bound, double scale, double fCenter, double uResolution) {
+        double threshold = TAIL_FACTOR * uResolution;
+        double massGuess = 2.0 * scale * fCenter;
+        double direction = Math.signum(bound - center);
+        boolean finite = !Double.isInfinite(bound);
+        double inside = center;
+        double step = finite ? 0.5 * Math.abs(bound - center) : scale;
+        for (int i = 0; i < 1100 && step > 0.0; i++) {
+            double x = finite ? bound - direction * step : center + direction * step;
+            if (Double.isInfinite(x) || x == bound) {
+                break;
+            }
+            double f = pdf.applyAsDouble(x);
+            if (f == 0.0) {
+                double outside = x;
+                for (int k = 0; k < 100 && Math.abs(outside - inside) > 1e-15 * Math.abs(inside); k++) {
+                    double middle = 0.5 * (inside + outside);
+                    if (pdf.applyAsDouble(middle) > 0.0) {
+                        inside = middle;
+                    } else {
+                        outside = middle;
+                    }
+                }
+                return inside;
+            }
+            double beyond = finite ? step : Math.abs(x - center);
+            boolean negligible = (cdf != null)
+                                 ? ((direction < 0.0) ? cdf.applyAsDouble(x) : 1.0 - cdf.applyAsDouble(x)) < threshold
+                                 : f * beyond < threshold * massGuess;
+            if (negligible) {
+                return x;
+            }
+            inside = x;
+            step = finite ? 0.5 * step : 2.0 * step;
+        }
+        if (finite) {
+            return bound;
+        }
+        throw new IllegalArgumentException("Could not find where the tail becomes negligible towards " + bound);
+    }
+
+    /*
+     * The median on [lower, upper], from the cdf alone. A bracket is widened
+     * from a first guess, the mean where it is defined, until the cdf
+     * crosses one half, and then bisected. Where the density vanishes at the
+     * median, as between two separated modes, the guess is returned instead.
+     */
+    private static double median(Distribution<Double> distribution, DoubleUnaryOperator pdf,
+                                 DoubleUnaryOperator cdf, double lower, double upper) {
+        double guess;
+        try {
+            guess = distribution.mean();
+        } catch (UnsupportedOperationException e) {
+            guess = Double.NaN;
+        }
+        if (!(guess > lower && guess < upper)) {
+            if (!Double.isInfinite(lower) && !Double.isInfinite(upper)) {
+                guess = 0.5 * (lower + upper);
+            } else if (!Double.isInfinite(lower)) {
+                guess = lower + 1.0;
+            } else if (!Double.isInfinite(upper)) {
+                guess = upper - 1.0;
+            } else {
+                guess = 0.0;
+            }
+        }
+        double below = guess;
+        double above = guess;
+        double step = 1.0;
+        if (cdf.applyAsDouble(guess) < 0.5) {
+            while (above < upper && cdf.applyAsDouble(above) < 0.5) {
+                below = above;
+                above = Math.min(upper, guess + step);
+                step *= 2.0;
+            }
+        } else {
+            while (below > lower && cdf.applyAsDouble(below) >= 0.5) {
+                above = below;
+                below = Math.max(lower, guess - step);
+                step *= 2.0;
+            }
+        }
+        for (int i = 0; i < 1100; i++) {
+            double middle = below + 0.5 * (above - below);
+            if (!(middle > below && middle < above)) {
+                break;
+            }
+            if (cdf.applyAsDouble(middle) < 0.5) {
+                below = middle;
+            } else {
+                above = middle;
+            }
+        }
+        return (pdf.applyAsDouble(above) > 0.0) ? above : guess;
+    }
+
+    private static DoubleUnaryOperator density(Distribution<Double> distribution) {
+        if (distribution instanceof DoubleDistribution) {
+            return ((DoubleDistribution) distribution)::pdf;
+        }
+        return distribution::pdf;
+    }
+
+    private static DoubleUnaryOperator cumulative(Distribution<Double> distribution) {
+        if (distribution instanceof DoubleDistribution) {
+            return ((DoubleDistribution) distribution)::cdf;
+        }
+        return distribution::cdf;
+    }
+}
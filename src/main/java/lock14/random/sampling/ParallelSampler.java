@@ -0,0 +1,86 @@
+package lock14.random.sampling;
+
+import lock14.random.Xoshiro256StarStar;
+import lock14.random.util.ForkJoinChunks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Draws large batches of variates on a fork-join pool, reproducibly.
+ * <p>
+ * A request for n variates is cut into chunks of a fixed size. Chunk i gets
+ * its own generator, the i-th stream split off a seeded
+ * {@link Xoshiro256StarStar}, and its own sampler built from that generator
+ * by the factory, e.g. {@code random -> new Gaussian(0, 1, random)}. Chunk
+ * boundaries and streams depend only on the seed, n and the chunk size, so
+ * the output is identical whatever the number of cores or the order the
+ * chunks happen to run in.
+ * <p>
+ * Successive calls continue from where the previous one stopped, so two
+ * calls of n produce the same values as one call of 2n only when n is a
+ * multiple of the chunk size.
+ */
+public class ParallelSampler {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final Function<Random, ? extends DistributionSampler<?>> factory;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final Xoshiro256StarStar streams;
+
+    public ParallelSampler(Function<Random, ? extends DistributionSampler<?>> factory, long seed) {
+        this(factory, seed, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSampler(Function<Random, ? extends DistributionSampler<?>> factory, long seed,
+                           int chunkSize) {
+        this(factory, seed, chunkSize, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSampler(Function<Random, ? extends DistributionSampler<?>> factory, long seed,
+                           int chunkSize, ForkJoinPool pool) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.factory = factory;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+        this.streams = new Xoshiro256StarStar(seed);
+    }
+
+    public synchronized void setSeed(long seed) {
+        streams.setSeed(seed);
+    }
+
+    public double[] sampleArray(int n) {
+        double[] samples = new double[n];
+        fill(samples, 0, n);
+        return samples;
+    }
+
+    /**
+     * Writes {@code len} variates into {@code dst} starting at {@code off}.
+     */
+    public void fill(double[] dst, int off, int len) {
+        if (off < 0 || len < 0 || off > dst.length - len) {
+            throw new ArrayIndexOutOfBoundsException("off = " + off + ", len = " + len);
+        }
+        int chunks = ForkJoinChunks.count(len, chunkSize);
+        Random[] generators = new Random[chunks];
+        // the streams must be handed out in chunk order to be reproducible
+        synchronized (this) {
+            for (int i = 0; i < chunks; i++) {
+                generators[i] = streams.split();
+            }
+        }
+        ForkJoinChunks.forEach(pool, chunks, chunk -> fillChunk(generators, dst, off, len, chunk));
+    }
+
+    private void fillChunk(Random[] generators, double[] dst, int off, int len, int chunk) {
+        int start = chunk * chunkSize;
+        factory.apply(generators[chunk])
+               .fill(dst, off + start, Math.min(chunkSize, len - start));
+    }
+}
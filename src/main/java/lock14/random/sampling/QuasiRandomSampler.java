@@ -0,0 +1,42 @@
+package lock14.random.sampling;
+
+import lock14.random.distribution.DoubleDistribution;
+
+/**
+ * Samples a distribution by feeding a one dimensional low discrepancy
+ * sequence through its inverse cdf, for quasi-Monte Carlo estimates of
+ * expectations. The draws are evenly spread rather than independent, so
+ * they suit averages, not tests of randomness.
+ */
+public class QuasiRandomSampler implements DoubleSampler {
+    private final DoubleDistribution distribution;
+    private final LowDiscrepancySequence sequence;
+    private final double[] point = new double[1];
+
+    /**
+     * Uses an Owen scrambled one dimensional Sobol sequence.
+     */
+    public QuasiRandomSampler(DoubleDistribution distribution, long seed) {
+        this(distribution, new SobolSequence(1, seed));
+    }
+
+    public QuasiRandomSampler(DoubleDistribution distribution, LowDiscrepancySequence sequence) {
+        if (sequence.getDimension() != 1) {
+            throw new IllegalArgumentException(
+                    "Expected a one dimensional sequence, got dimension " + sequence.getDimension());
+        }
+        this.distribution = distribution;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        sequence.setSeed(seed);
+    }
+
+    @Override
+    public double sampleDouble() {
+        sequence.nextPoint(point);
+        return distribution.inverseCdf(point[0]);
+    }
+}
@@ -37,6 +37,9 @@ public class RejectionSampler<N extends Number> implements DistributionSampler<N
     @Override
     public void setSeed(long seed) {
         qSampler.setSeed(seed);
+        // a different seed, so the acceptance uniforms do not replay the
+        // proposal's own stream when both use the same kind of generator
+        uniform.setSeed(~Long.reverse(seed));
     }
 
     @Override
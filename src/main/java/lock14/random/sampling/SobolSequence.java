@@ -0,0 +1,187 @@
+package lock14.random.sampling;
+
+import lock14.random.Xoshiro256StarStar;
+
+/**
+ * The Sobol sequence in up to {@value #MAX_DIMENSION} dimensions, using the
+ * direction numbers of Joe and Kuo.
+ * <p>
+ * Points are generated in Gray code order, one xor per coordinate, and
+ * {@link #skipTo(long)} jumps to any index directly. The first 2^m points
+ * form a (t, m, d)-net, so sample sizes that are powers of two work best.
+ * Coordinates are 32-bit fractions centered in their cell, so none is
+ * exactly 0 or 1 and they can be fed to any inverse cdf.
+ * <p>
+ * With a seed the points are Owen scrambled with Burley's hash-based nested
+ * uniform scrambling: the bits of each coordinate are reversed, permuted by
+ * the Laine-Karras hash so that every bit is flipped depending only on the
+ * bits above it, and reversed back. This keeps the net structure while
+ * making every point uniformly distributed, so independent seeds give
+ * unbiased replicates.
+ * <p>
+ * Sources: S. Joe and F. Y. Kuo, "Constructing Sobol sequences with better
+ * two-dimensional projections", SIAM Journal on Scientific Computing 30(5),
+ * 2008; B. Burley, "Practical Hash-based Owen Scrambling", Journal of
+ * Computer Graphics Techniques 9(4), 2020.
+ */
+public class SobolSequence implements LowDiscrepancySequence {
+    private static final int BITS = 32;
+    private static final long MAX_POINTS = 1L << BITS;
+    // from new-joe-kuo-6.21201: {s, a, m_1, ..., m_s} for dimensions 2, 3, ...
+    private static final int[][] DIRECTION_NUMBERS = {
+            {1, 0, 1}, {2, 1, 1, 3}, {3, 1, 1, 3, 1}, {3, 2, 1, 1, 1}, {4, 1, 1, 1, 3, 3},
+            {4, 4, 1, 3, 5, 13}, {5, 2, 1, 1, 5, 5, 17}, {5, 4, 1, 1, 5, 5, 5},
+            {5, 7, 1, 1, 7, 11, 19}, {5, 11, 1, 1, 5, 1, 1}, {5, 13, 1, 1, 1, 3, 11},
+            {5, 14, 1, 3, 5, 5, 31}, {6, 1, 1, 3, 3, 9, 7, 49}, {6, 13, 1, 1, 1, 15, 21, 21},
+            {6, 16, 1, 3, 1, 13, 27, 49}, {6, 19, 1, 1, 1, 15, 7, 5}, {6, 22, 1, 3, 1, 15, 13, 25},
+            {6, 25, 1, 1, 5, 5, 19, 61}, {7, 1, 1, 3, 7, 11, 23, 15, 103},
+            {7, 4, 1, 3, 7, 13, 13, 15, 69}, {7, 7, 1, 1, 3, 13, 7, 35, 63},
+            {7, 8, 1, 3, 5, 9, 1, 25, 53}, {7, 14, 1, 3, 1, 13, 9, 35, 107},
+            {7, 19, 1, 3, 1, 5, 27, 61, 31}, {7, 21, 1, 1, 5, 11, 19, 41, 61},
+            {7, 28, 1, 3, 5, 3, 3, 13, 69}, {7, 31, 1, 1, 7, 13, 1, 19, 1},
+            {7, 32, 1, 3, 7, 5, 13, 19, 59}, {7, 37, 1, 1, 3, 9, 25, 29, 41},
+            {7, 41, 1, 3, 5, 13, 23, 1, 55}, {7, 42, 1, 3, 7, 3, 13, 59, 17},
+            {7, 50, 1, 3, 1, 3, 5, 53, 69}, {7, 55, 1, 1, 5, 5, 23, 33, 13},
+            {7, 56, 1, 1, 7, 7, 1, 61, 123}, {7, 59, 1, 1, 7, 9, 13, 61, 49},
+            {7, 62, 1, 3, 3, 5, 3, 55, 33}, {8, 14, 1, 3, 1, 15, 31, 13, 49, 245},
+            {8, 21, 1, 3, 5, 15, 31, 59, 63, 97}, {8, 22, 1, 3, 1, 11, 11, 11, 77, 249},
+            {8, 38, 1, 3, 1, 11, 27, 43, 71, 9}, {8, 47, 1, 1, 7, 15, 21, 11, 81, 45},
+            {8, 49, 1, 3, 7, 3, 25, 31, 65, 79}, {8, 50, 1, 3, 1, 1, 19, 11, 3, 205},
+            {8, 52, 1, 1, 5, 9, 19, 21, 29, 157}, {8, 56, 1, 3, 7, 11, 1, 33, 89, 185},
+            {8, 67, 1, 3, 3, 3, 15, 9, 79, 71}, {8, 70, 1, 3, 7, 11, 15, 39, 119, 27},
+            {8, 84, 1, 1, 3, 1, 11, 31, 97, 225}, {8, 97, 1, 1, 1, 3, 23, 43, 57, 177},
+            {8, 103, 1, 3, 7, 7, 17, 17, 37, 71}, {8, 115, 1, 3, 1, 5, 27, 63, 123, 213},
+            {8, 122, 1, 1, 3, 5, 11, 43, 53, 133}, {9, 8, 1, 3, 5, 5, 29, 17, 47, 173, 479},
+            {9, 13, 1, 3, 3, 11, 3, 1, 109, 9, 69}, {9, 16, 1, 1, 1, 5, 17, 39, 23, 5, 343},
+            {9, 22, 1, 3, 1, 5, 25, 15, 31, 103, 499}, {9, 25, 1, 1, 1, 11, 11, 17, 63, 105, 183},
+            {9, 44, 1, 1, 5, 11, 9, 29, 97, 231, 363}, {9, 47, 1, 1, 5, 15, 19, 45, 41, 7, 383},
+            {9, 52, 1, 3, 7, 7, 31, 19, 83, 137, 221}, {9, 55, 1, 1, 1, 3, 23, 15, 111, 223, 83},
+            {9, 59, 1, 1, 5, 13, 31, 15, 55, 25, 161}, {9, 62, 1, 1, 3, 13, 25, 47, 39, 87, 257}
+    };
+    public static final int MAX_DIMENSION = 64;
+
+    private final int dimension;
+    private final int[][] directions;
+    private final int[] state;
+    private final boolean scrambled;
+    private final int[] scrambleSeeds;
+    private long index;
+
+    /**
+     * Creates the unscrambled sequence.
+     */
+    public SobolSequence(int dimension) {
+        this(dimension, false, 0L);
+    }
+
+    /**
+     * Creates an Owen scrambled sequence.
+     */
+    public SobolSequence(int dimension, long seed) {
+        this(dimension, true, seed);
+    }
+
+    private SobolSequence(int dimension, boolean scrambled, long seed) {
+        if (dimension < 1 || dimension > MAX_DIMENSION) {
+            throw new IllegalArgumentException(
+                    "Dimension must be between 1 and " + MAX_DIMENSION + ": " + dimension);
+        }
+        this.dimension = dimension;
+        this.scrambled = scrambled;
+        this.directions = new int[dimension][BITS];
+        this.state = new int[dimension];
+        this.scrambleSeeds = new int[dimension];
+        for (int k = 0; k < BITS; k++) {
+            directions[0][k] = 1 << (BITS - 1 - k);
+        }
+        for (int j = 1; j < dimension; j++) {
+            int[] row = DIRECTION_NUMBERS[j - 1];
+            int s = row[0];
+            int a = row[1];
+            int[] v = directions[j];
+            for (int k = 0; k < s; k++) {
+                v[k] = row[2 + k] << (BITS - 1 - k);
+            }
+            for (int k = s; k < BITS; k++) {
+                v[k] = v[k - s] ^ (v[k - s] >>> s);
+                for (int i = 1; i < s; i++) {
+                    if (((a >>> (s - 1 - i)) & 1) != 0) {
+                        v[k] ^= v[k - i];
+                    }
+                }
+            }
+        }
+        setSeed(seed);
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public long getIndex() {
+        return index;
+    }
+
+    @Override
+    public void skipTo(long index) {
+        if (index < 0 || index > MAX_POINTS) {
+            throw new IllegalArgumentException("Index out of range: " + index);
+        }
+        this.index = index;
+        long gray = index ^ (index >>> 1);
+        for (int j = 0; j < dimension; j++) {
+            int x = 0;
+            for (int k = 0; k < BITS; k++) {
+                if (((gray >>> k) & 1) != 0) {
+                    x ^= directions[j][k];
+                }
+            }
+            state[j] = x;
+        }
+    }
+
+    /**
+     * Draws new scrambles when the sequence is scrambled, and restarts it.
+     */
+    @Override
+    public void setSeed(long seed) {
+        if (scrambled) {
+            Xoshiro256StarStar random = new Xoshiro256StarStar(seed);
+            for (int j = 0; j < dimension; j++) {
+                scrambleSeeds[j] = random.nextInt();
+            }
+        }
+        skipTo(0);
+    }
+
+    @Override
+    public void nextPoint(double[] point) {
+        if (index >= MAX_POINTS) {
+            throw new IllegalStateException("The sequence is exhausted after 2^" + BITS + " points");
+        }
+        for (int j = 0; j < dimension; j++) {
+            int x = scrambled ? scramble(state[j], scrambleSeeds[j]) : state[j];
+            point[j] = ((x & 0xffffffffL) + 0.5) * 0x1.0p-32;
+        }
+        index++;
+        if (index < MAX_POINTS) {
+            // the Gray codes of index - 1 and index differ in this bit
+            int bit = Long.numberOfTrailingZeros(index);
+            for (int j = 0; j < dimension; j++) {
+                state[j] ^= directions[j][bit];
+            }
+        }
+    }
+
+    private static int scramble(int x, int seed) {
+        x = Integer.reverse(x);
+        x += seed;
+        x ^= x * 0x6c50b47c;
+        x ^= x * 0xb82f1e52;
+        x ^= x * 0xc7afe638;
+        x ^= x * 0x8d22f6e6;
+        return Integer.reverse(x);
+    }
+}
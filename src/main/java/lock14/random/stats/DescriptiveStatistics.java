@@ -1,12 +1,22 @@
 package lock14.random.stats;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.DoubleStream;
 
+/**
+ * Summary statistics of a sample, which is kept sorted in a primitive array,
+ * 8 bytes per sample, so order statistics and quantiles are O(1) lookups.
+ * Statistics are computed on first use and cached until a sample is added.
+ */
 public class DescriptiveStatistics {
-    private final List<Double> samples;
+    /** Samples at least this many are sorted with {@link Arrays#parallelSort(double[])}. */
+    public static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    // samples[0, size) sorted ascending; the capacity beyond size lets
+    // addSample insert without reallocating each time
+    private double[] samples;
+    private int size;
     private Double mean;
     private Double geometricMean;
     private Double variance;
@@ -23,62 +33,107 @@ public class DescriptiveStatistics {
     public <N extends Number> DescriptiveStatistics(Iterable<N> samples) {
         // This is useful even if N is Double type as we need to make
         // a defensive copy of the collection anyway
-        this.samples = new LinkedList<>();
-        samples.forEach(sample -> this.samples.add(sample.doubleValue()));
-        Collections.sort(this.samples);
-        reset();
+        double[] copy = new double[(samples instanceof Collection) ? ((Collection<?>) samples).size() : 16];
+        int count = 0;
+        for (N sample : samples) {
+            if (count == copy.length) {
+                copy = Arrays.copyOf(copy, Math.max(16, 2 * count));
+            }
+            copy[count++] = sample.doubleValue();
+        }
+        this.samples = copy;
+        this.size = count;
+        sort(this.samples, this.size);
+    }
+
+    /**
+     * Summarizes a copy of {@code samples}, which is left unchanged.
+     */
+    public DescriptiveStatistics(double[] samples) {
+        this.samples = samples.clone();
+        this.size = samples.length;
+        sort(this.samples, this.size);
+    }
+
+    public DescriptiveStatistics(DoubleStream samples) {
+        this.samples = samples.toArray();
+        this.size = this.samples.length;
+        sort(this.samples, this.size);
     }
 
     public void addSample(double x) {
-        // do a sorted insert
-        ListIterator<Double> itr = samples.listIterator();
-        // set to x + 1 so first condition of while loop is
-        // always met
-        double val = x + 1;
-        while (x < val && itr.hasNext()) {
-            val = itr.next();
-        }
-        if (itr.hasPrevious()) {
-            itr.previous();
-        }
-        itr.add(x);
+        // do a sorted insert after any equal samples
+        int index = Arrays.binarySearch(samples, 0, size, x);
+        if (index < 0) {
+            index = -(index + 1);
+        }
+        while (index < size && samples[index] == x) {
+            index++;
+        }
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(16, 2 * size));
+        }
+        System.arraycopy(samples, index, samples, index + 1, size - index);
+        samples[index] = x;
+        size++;
         reset();
     }
 
-    public List<Double> sortedSamples() {
-        return Collections.unmodifiableList(samples);
+    /**
+     * The samples in ascending order, streamed straight from the backing
+     * array without copying or boxing them.
+     */
+    public DoubleStream sortedSamples() {
+        return Arrays.stream(samples, 0, size);
+    }
+
+    /**
+     * The k-th smallest sample, counting from 0.
+     */
+    public double sortedSample(int k) {
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("k = " + k + ", size = " + size);
+        }
+        return samples[k];
+    }
+
+    /**
+     * A copy of the samples in ascending order.
+     */
+    public double[] toSortedArray() {
+        return Arrays.copyOf(samples, size);
     }
 
     public int numSamples() {
-        return samples.size();
+        return size;
     }
 
     public double mean() {
         if (mean == null) {
-            mean = samples.stream()
-                          .mapToDouble(Double::doubleValue)
-                          .average()
-                          .orElse(0);
+            mean = sortedSamples().average()
+                                  .orElse(0);
         }
         return mean;
     }
 
+    /**
+     * Computed as the exponential of the mean log, as the product of many
+     * samples would overflow or underflow.
+     */
     public double geometricMean() {
         if (geometricMean == null) {
-            double prod = samples.stream()
-                                 .mapToDouble(Double::doubleValue)
-                                 .reduce(1.0, (x1, x2) -> x1 * x2);
-            double pow = 1.0 / samples.size();
-            geometricMean = StrictMath.pow(prod, pow);
+            geometricMean = StrictMath.exp(sortedSamples().map(StrictMath::log)
+                                                          .average()
+                                                          .orElse(0));
         }
         return geometricMean;
     }
 
     public double variance() {
         if (variance == null) {
-            variance = samples.stream()
-                              .mapToDouble(x -> StrictMath.pow(x - mean(), 2))
-                              .sum() / (samples.size() - 1);
+            double m = mean();
+            variance = sortedSamples().map(x -> (x - m) * (x - m))
+                                      .sum() / (size - 1);
         }
         return variance;
     }
@@ -92,21 +147,21 @@ public class DescriptiveStatistics {
 
     public double median() {
         if (median == null) {
-            median = kth_q_quantile(1, 2, samples);
+            median = kth_q_quantile(1, 2);
         }
         return median;
     }
 
     public double Q1() {
         if (Q1 == null) {
-            Q1 = kth_q_quantile(1, 4, samples);
+            Q1 = kth_q_quantile(1, 4);
         }
         return Q1;
     }
 
     public double Q3() {
         if (Q3 == null) {
-            Q3 = kth_q_quantile(3, 4, samples);
+            Q3 = kth_q_quantile(3, 4);
         }
         return Q3;
     }
@@ -134,20 +189,20 @@ public class DescriptiveStatistics {
 
     public double min() {
         if (min == null) {
-            if (samples.isEmpty()) {
+            if (size == 0) {
                 throw new IllegalStateException();
             }
-            min = samples.get(0);
+            min = samples[0];
         }
         return min;
     }
 
     public double max() {
         if (max == null) {
-            if (samples.isEmpty()) {
+            if (size == 0) {
                 throw new IllegalStateException();
             }
-            max = samples.get(samples.size() - 1);
+            max = samples[size - 1];
         }
         return max;
     }
@@ -169,14 +224,14 @@ public class DescriptiveStatistics {
     }
 
     public double percentile(int percentile) {
-        return kth_q_quantile(percentile, 100, samples);
+        return kth_q_quantile(percentile, 100);
     }
 
     public double nthMomentAboutMean(int n) {
-        return samples.stream()
-                      .mapToDouble(x -> StrictMath.pow(x - mean(), n))
-                      .average()
-                      .orElse(0);
+        double m = mean();
+        return sortedSamples().map(x -> power(x - m, n))
+                              .average()
+                              .orElse(0);
     }
 
     private void reset() {
@@ -194,18 +249,42 @@ public class DescriptiveStatistics {
         max = null;
     }
 
-    private double kth_q_quantile(int k, int q, List<Double> list) {
-        if (k < 0 || q < 0) {
+    private double kth_q_quantile(int k, int q) {
+        if (k < 0 || q <= 0 || k > q) {
             throw new IllegalArgumentException();
         }
-        double i = (k * (list.size() - 1)) / (double) q;
-        if ((i == StrictMath.floor(i)) && !Double.isInfinite(i)) {
-            return list.get((int) i);
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        double i = (k * (double) (size - 1)) / q;
+        if (i == StrictMath.floor(i)) {
+            return samples[(int) i];
         } else {
-            double lower = list.get((int) StrictMath.floor(i));
-            double upper = list.get((int) StrictMath.ceil(i));
+            double lower = samples[(int) StrictMath.floor(i)];
+            double upper = samples[(int) StrictMath.ceil(i)];
             double frac = i - StrictMath.floor(i);
             return ((1 - frac) * lower) + (frac * upper);
         }
     }
+
+    private static void sort(double[] samples, int size) {
+        if (size >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(samples, 0, size);
+        } else {
+            Arrays.sort(samples, 0, size);
+        }
+    }
+
+    // x^n by repeated multiplication, which is much faster than pow for the
+    // small powers the moments need
+    private static double power(double x, int n) {
+        if (n < 0) {
+            return StrictMath.pow(x, n);
+        }
+        double result = 1.0;
+        for (int i = 0; i < n; i++) {
+            result *= x;
+        }
+        return result;
+    }
 }
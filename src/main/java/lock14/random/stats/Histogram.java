@@ -16,6 +16,14 @@ public class Histogram<N extends Number> {
         this(new DescriptiveStatistics(samples), bins);
     }
 
+    public Histogram(double[] samples) {
+        this(samples, null);
+    }
+
+    public Histogram(double[] samples, Integer bins) {
+        this(new DescriptiveStatistics(samples), bins);
+    }
+
     public Histogram(DescriptiveStatistics stats) {
         this(stats, null);
     }
@@ -35,9 +43,10 @@ public class Histogram<N extends Number> {
         double max = stats.max();
         int bins = freq.length;
         double binLength = range / bins;
-        List<Double> sortedSamples = stats.sortedSamples();
+        int n = stats.numSamples();
 
-        for (double sample : sortedSamples) {
+        for (int i = 0; i < n; i++) {
+            double sample = stats.sortedSample(i);
             if (sample == max) {
                 addDataPoint(freq.length - 1);
             } else {
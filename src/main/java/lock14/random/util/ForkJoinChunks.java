@@ -0,0 +1,107 @@
+package lock14.random.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Runs work cut into numbered chunks on a fork-join pool. The range of
+ * chunks is halved recursively until each task holds a single chunk, so the
+ * split depends only on the number of chunks, never on the pool. A single
+ * chunk runs on the calling thread.
+ */
+public final class ForkJoinChunks {
+
+    private ForkJoinChunks() {
+    }
+
+    /**
+     * The number of chunks of {@code chunkSize} elements covering {@code len},
+     * the last one possibly short.
+     */
+    public static int count(long len, int chunkSize) {
+        return (int) ((len + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * Calls {@code action} with each chunk number in [0, chunks).
+     */
+    public static void forEach(ForkJoinPool pool, int chunks, IntConsumer action) {
+        if (chunks == 1) {
+            action.accept(0);
+        } else if (chunks > 1) {
+            pool.invoke(new ForEachTask(action, 0, chunks));
+        }
+    }
+
+    /**
+     * Maps each chunk number in [0, chunks) to a partial result and combines
+     * the partial results of adjacent ranges, the left one first. The order
+     * of combination is fixed by the number of chunks, so a floating point
+     * reduction gives the same result on any pool.
+     */
+    public static <T> T reduce(ForkJoinPool pool, int chunks, IntFunction<? extends T> map,
+                               BinaryOperator<T> combine) {
+        if (chunks <= 0) {
+            throw new IllegalArgumentException("Need at least one chunk: " + chunks);
+        }
+        if (chunks == 1) {
+            return map.apply(0);
+        }
+        return pool.invoke(new ReduceTask<>(map, combine, 0, chunks));
+    }
+
+    private static final class ForEachTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final IntConsumer action;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ForEachTask(IntConsumer action, int fromChunk, int toChunk) {
+            this.action = action;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                action.accept(fromChunk);
+            } else {
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(new ForEachTask(action, fromChunk, middle),
+                          new ForEachTask(action, middle, toChunk));
+            }
+        }
+    }
+
+    private static final class ReduceTask<T> extends RecursiveTask<T> {
+        private static final long serialVersionUID = 1L;
+        private final IntFunction<? extends T> map;
+        private final BinaryOperator<T> combine;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ReduceTask(IntFunction<? extends T> map, BinaryOperator<T> combine, int fromChunk, int toChunk) {
+            this.map = map;
+            this.combine = combine;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected T compute() {
+            if (toChunk - fromChunk == 1) {
+                return map.apply(fromChunk);
+            }
+            int middle = (fromChunk + toChunk) >>> 1;
+            ReduceTask<T> right = new ReduceTask<>(map, combine, middle, toChunk);
+            right.fork();
+            T left = new ReduceTask<>(map, combine, fromChunk, middle).compute();
+            return combine.apply(left, right.join());
+        }
+    }
+}